@@ -0,0 +1,61 @@
+#!/usr/bin/env bash
+# Measures time-to-first-successful-request of recipes-service.
+#
+# Usage: scripts/startup-benchmark.sh [runs] [-- extra java options]
+#   scripts/startup-benchmark.sh 5
+#   scripts/startup-benchmark.sh 5 -- -XX:SharedArchiveFile=recipes-service.jsa -Dspring.aot.enabled=true -Dspring.profiles.active=fast-startup
+#
+# JAR, PORT, URL and CREDENTIALS can be overridden through the environment.
+set -euo pipefail
+
+RUNS=${1:-5}
+shift || true
+[[ "${1:-}" == "--" ]] && shift
+JAVA_OPTIONS=("$@")
+
+JAR=${JAR:-target/recipes-service-1.0.jar}
+PORT=${PORT:-8100}
+URL=${URL:-http://localhost:${PORT}/recipes}
+CREDENTIALS=${CREDENTIALS:-user:userpass}
+TIMEOUT_SECONDS=${TIMEOUT_SECONDS:-60}
+
+if [[ ! -f "$JAR" ]]; then
+    echo "Jar $JAR not found, run 'mvn package' (or 'mvn -Pfast-startup package') first." >&2
+    exit 1
+fi
+
+now_ms() {
+    date +%s%3N
+}
+
+results=()
+for run in $(seq 1 "$RUNS"); do
+    start=$(now_ms)
+    java "${JAVA_OPTIONS[@]}" -jar "$JAR" --server.port="$PORT" > "/tmp/recipes-service-startup-$run.log" 2>&1 &
+    pid=$!
+
+    elapsed=""
+    while kill -0 "$pid" 2> /dev/null; do
+        if curl -sf -o /dev/null -u "$CREDENTIALS" "$URL"; then
+            elapsed=$(( $(now_ms) - start ))
+            break
+        fi
+        if (( $(now_ms) - start > TIMEOUT_SECONDS * 1000 )); then
+            break
+        fi
+        sleep 0.02
+    done
+
+    kill "$pid" 2> /dev/null || true
+    wait "$pid" 2> /dev/null || true
+
+    if [[ -z "$elapsed" ]]; then
+        echo "run $run: no successful request, see /tmp/recipes-service-startup-$run.log" >&2
+        exit 1
+    fi
+    echo "run $run: ${elapsed} ms"
+    results+=("$elapsed")
+done
+
+sorted=($(printf '%s\n' "${results[@]}" | sort -n))
+echo "min ${sorted[0]} ms, median ${sorted[$(( RUNS / 2 ))]} ms, max ${sorted[$(( RUNS - 1 ))]} ms"
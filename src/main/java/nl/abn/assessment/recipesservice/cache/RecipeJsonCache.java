@@ -0,0 +1,115 @@
+package nl.abn.assessment.recipesservice.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import nl.abn.assessment.recipesservice.compression.Gzip;
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import nl.abn.assessment.recipesservice.event.RecipeChangedEvent;
+import nl.abn.assessment.recipesservice.invalidation.InvalidationListener;
+import nl.abn.assessment.recipesservice.invalidation.RecipeInvalidation;
+import nl.abn.assessment.recipesservice.invalidation.RecipeVersions;
+import nl.abn.assessment.recipesservice.model.RecipeDto;
+import nl.abn.assessment.recipesservice.service.RecipeService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps the encoded UTF-8 JSON of recently read recipes, and the gzip-compressed form of those above
+ * the {@code recipes.compression} threshold, so that hot {@code GET /recipe/{id}} calls are answered
+ * without running Jackson or the compressor again.
+ * Entries are dropped once a write to the recipe commits, locally or, through the invalidation bus,
+ * on another instance.
+ */
+@Component
+@ConditionalOnProperty(prefix = "recipes.response-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RecipeJsonCache implements InvalidationListener {
+
+    /**
+     * The ETags name the recipe id, its version and the representation, so they change with every update and the
+     * gzip bytes never share a strong validator with the plain JSON.
+     */
+    public record EncodedRecipe(byte[] json, byte[] gzip, String jsonEtag, String gzipEtag) {
+
+        public boolean hasGzip() {
+            return gzip != null;
+        }
+    }
+
+    private final RecipeService recipeService;
+
+    private final ObjectMapper objectMapper;
+
+    private final RecipesServiceProperties.Compression compression;
+
+    private final Cache<Long, EncodedRecipe> cache;
+
+    private final RecipeVersions versions = new RecipeVersions();
+
+    public RecipeJsonCache(RecipeService recipeService, ObjectMapper objectMapper, RecipesServiceProperties properties) {
+        this.recipeService = recipeService;
+        this.objectMapper = objectMapper;
+        this.compression = properties.getCompression();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getResponseCache().getMaxEntries())
+                .build();
+    }
+
+    /**
+     * Returns the encoded recipe, loading it through {@link RecipeService} on a miss.
+     *
+     * @throws nl.abn.assessment.recipesservice.exception.RecipeNotFoundException if the recipe does not exist
+     */
+    public EncodedRecipe get(Long id) {
+        EncodedRecipe cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return cached;
+        }
+        long version = versions.current(id);
+        EncodedRecipe loaded = encode(recipeService.getRecipeById(id));
+        cache.put(id, loaded);
+        // An invalidation that arrived while loading means the bytes may predate it.
+        if (versions.current(id) != version) {
+            cache.asMap().remove(id, loaded);
+        }
+        return loaded;
+    }
+
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (event.change().getSeq() != null) {
+            versions.advance(event.recipeId(), event.change().getSeq());
+        }
+        invalidate(event.recipeId());
+    }
+
+    @Override
+    public void onInvalidation(RecipeInvalidation invalidation) {
+        if (versions.advance(invalidation.recipeId(), invalidation.version())) {
+            invalidate(invalidation.recipeId());
+        }
+    }
+
+    private EncodedRecipe encode(RecipeDto recipe) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(recipe);
+            byte[] gzip = compression.isCompressible(MediaType.APPLICATION_JSON_VALUE) && json.length >= compression.getMinResponseBytes()
+                    ? Gzip.compress(json) : null;
+            long version = recipe.getVersion() != null ? recipe.getVersion() : 0;
+            return new EncodedRecipe(json, gzip, etag(recipe.getId(), version, "json"), gzip != null ? etag(recipe.getId(), version, "gzip") : null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize recipe " + recipe.getId(), e);
+        }
+    }
+
+    private static String etag(Long id, long version, String representation) {
+        return "\"" + id + "-" + version + "-" + representation + "\"";
+    }
+}
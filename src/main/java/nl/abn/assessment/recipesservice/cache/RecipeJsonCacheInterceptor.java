@@ -0,0 +1,99 @@
+package nl.abn.assessment.recipesservice.cache;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import nl.abn.assessment.recipesservice.compression.Gzip;
+import nl.abn.assessment.recipesservice.config.WebConfig;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers {@code GET /recipe/{id}} straight from {@link RecipeJsonCache}, bypassing the controller and
+ * the message converters. Requests it cannot serve (binary media types, invalid ids) fall through to the regular
+ * handler; unknown ids end in the usual 404 without a second lookup.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "recipes.response-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RecipeJsonCacheInterceptor implements HandlerInterceptor {
+
+    private final RecipeJsonCache recipeJsonCache;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!HttpMethod.GET.matches(request.getMethod()) || !acceptsJson(request)) {
+            return true;
+        }
+        Long id = recipeId(request);
+        if (id == null) {
+            return true;
+        }
+        // A RecipeNotFoundException goes to the exception handler like one thrown by the controller.
+        RecipeJsonCache.EncodedRecipe recipe = recipeJsonCache.get(id);
+
+        boolean gzip = recipe.hasGzip() && Gzip.isAccepted(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? recipe.gzipEtag() : recipe.jsonEtag();
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (!response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING)) {
+            // Not added already by ResponseCompressionFilter.
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+        byte[] body = recipe.json();
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            body = recipe.gzip();
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+        return false;
+    }
+
+    private static Long recipeId(HttpServletRequest request) {
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (!(variables instanceof Map<?, ?> map) || !(map.get("id") instanceof String id)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean acceptsJson(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        try {
+            List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+            return mediaTypes.stream().anyMatch(mediaType -> mediaType.includes(MediaType.APPLICATION_JSON))
+                    && mediaTypes.stream().noneMatch(RecipeJsonCacheInterceptor::isBinaryType);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    private static boolean isBinaryType(MediaType mediaType) {
+        return !mediaType.isWildcardSubtype()
+                && (mediaType.isCompatibleWith(WebConfig.APPLICATION_SMILE) || mediaType.isCompatibleWith(WebConfig.APPLICATION_CBOR));
+    }
+}
@@ -0,0 +1,20 @@
+package nl.abn.assessment.recipesservice.catalog;
+
+import java.util.List;
+
+/**
+ * Row counts the {@link SearchPlanner} uses to estimate how selective each search filter is.
+ */
+public interface CardinalityStatistics {
+
+    long liveRows();
+
+    long vegetarianRows(boolean vegetarian);
+
+    long servingsRows(int servings);
+
+    /**
+     * Upper bound of the rows having at least one ingredient that contains one of {@code terms}.
+     */
+    long ingredientRows(List<String> terms);
+}
@@ -0,0 +1,660 @@
+package nl.abn.assessment.recipesservice.catalog;
+
+import nl.abn.assessment.recipesservice.model.Recipe;
+import nl.abn.assessment.recipesservice.service.RecipeSearchCriteria;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Column-oriented recipe storage used for in-memory search.
+ * <p>
+ * Scalar attributes live in primitive columns ({@code vegetarian} as a bitset, {@code servings} as an
+ * int column), ingredients are dictionary encoded into a flat int array and all text is kept as UTF-8
+ * once in a direct (off-heap) byte arena of at most {@value #MAX_ARENA_BYTES} bytes. Instructions are matched
+ * case-insensitively in place when they are ASCII and decoded otherwise. Filtering walks the columns without
+ * allocating per row; only matching rows are decoded back into {@link Recipe}s.
+ * <p>
+ * Rows are append-only: an update appends a new row and tombstones the old one, and the store is
+ * compacted once tombstones outnumber live rows. Live-row counts per vegetarian flag, servings value and
+ * ingredient, plus a posting list per ingredient, are kept for the {@link SearchPlanner}.
+ */
+public class ColumnarRecipeStore implements CardinalityStatistics {
+
+    private static final int INITIAL_ROWS = 1024;
+    private static final int INITIAL_ARENA_BYTES = 256 * 1024;
+    private static final int MAX_ARENA_BYTES = Integer.MAX_VALUE - 8;
+    private static final int INITIAL_CODES = 256;
+    private static final int MIN_DEAD_ROWS_FOR_COMPACTION = 1024;
+    private static final String INGREDIENT_SEPARATOR = ", ";
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final SearchPlanner planner = new SearchPlanner();
+
+    private final Map<Long, Integer> rowById = new HashMap<>();
+    private final Map<String, Integer> codeByIngredient = new HashMap<>();
+    private final List<String> ingredientByCode = new ArrayList<>();
+    private final List<String> lowerIngredientByCode = new ArrayList<>();
+
+    private int rows;
+    private int liveRows;
+    private final BitSet live = new BitSet();
+    private final BitSet vegetarian = new BitSet();
+    private final BitSet asciiInstructions = new BitSet();
+    private long[] ids = new long[INITIAL_ROWS];
+    private long[] versions = new long[INITIAL_ROWS];
+    private int[] servings = new int[INITIAL_ROWS];
+    private int[] ingredientStart = new int[INITIAL_ROWS];
+    private int[] ingredientCount = new int[INITIAL_ROWS];
+    private int[] nameOffset = new int[INITIAL_ROWS];
+    private int[] nameLength = new int[INITIAL_ROWS];
+    private int[] instructionsOffset = new int[INITIAL_ROWS];
+    private int[] instructionsLength = new int[INITIAL_ROWS];
+
+    private int[] ingredientCodes = new int[INITIAL_ROWS * 4];
+    private int ingredientCodesSize;
+
+    private int vegetarianLiveRows;
+    private final Map<Integer, Integer> servingsLiveRows = new HashMap<>();
+    private int[] ingredientLiveRows = new int[INITIAL_CODES];
+    private int[][] postings = new int[INITIAL_CODES][];
+    private int[] postingSizes = new int[INITIAL_CODES];
+
+    private ByteBuffer arena = ByteBuffer.allocateDirect(INITIAL_ARENA_BYTES);
+    private int arenaSize;
+
+    public void put(Recipe recipe) {
+        byte[] name = utf8(recipe.getName());
+        byte[] instructions = utf8(recipe.getInstructions());
+        lock.writeLock().lock();
+        try {
+            ensureArenaCapacity((long) arenaSize + length(name) + length(instructions));
+            Integer existing = rowById.get(recipe.getId());
+            if (existing != null) {
+                kill(existing);
+            }
+            append(recipe, name, instructions);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = rowById.remove(id);
+            if (existing != null) {
+                kill(existing);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            reset(INITIAL_ROWS);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Recipe get(Long id) {
+        lock.readLock().lock();
+        try {
+            Integer row = rowById.get(id);
+            return row == null ? null : materialize(row);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveRows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void forEach(Consumer<Recipe> consumer) {
+        lock.readLock().lock();
+        try {
+            for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+                consumer.accept(materialize(row));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Recipe> search(RecipeSearchCriteria criteria) {
+        return search(criteria, null).recipes();
+    }
+
+    public record Result(List<Recipe> recipes, SearchPlan plan) {
+    }
+
+    public record ParallelScan(ForkJoinPool pool, long minCost, int segmentRows) {
+    }
+
+    /**
+     * Plans and evaluates a search. Rare included ingredients are answered from their posting lists;
+     * otherwise the live rows are scanned, split into segments on the {@link ParallelScan}'s pool when
+     * the estimated cost reaches its threshold, and merged back in id order.
+     */
+    public Result search(RecipeSearchCriteria criteria, ParallelScan parallelScan) {
+        lock.readLock().lock();
+        try {
+            SearchPlan plan = planner.plan(criteria, this);
+            RowFilter filter = compile(criteria, plan.steps());
+            if (filter == null) {
+                return new Result(List.of(), plan);
+            }
+            long[] matches;
+            if (plan.accessPath() == SearchPlan.AccessPath.INGREDIENT_POSTINGS) {
+                matches = scanPostings(filter);
+            } else if (parallelScan != null && (long) liveRows * filter.costPerRow() >= parallelScan.minCost()
+                    && rows > parallelScan.segmentRows()) {
+                matches = parallelScan.pool().invoke(new SegmentScan(filter, 0, rows, parallelScan.segmentRows()));
+            } else {
+                matches = scan(filter, 0, rows);
+            }
+            return new Result(materialize(matches), plan);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long liveRows() {
+        return size();
+    }
+
+    @Override
+    public long vegetarianRows(boolean vegetarianValue) {
+        lock.readLock().lock();
+        try {
+            return vegetarianValue ? vegetarianLiveRows : liveRows - vegetarianLiveRows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long servingsRows(int servingsValue) {
+        lock.readLock().lock();
+        try {
+            return servingsLiveRows.getOrDefault(servingsValue, 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long ingredientRows(List<String> terms) {
+        lock.readLock().lock();
+        try {
+            BitSet codes = codesContainingAny(terms);
+            long total = 0;
+            for (int code = codes.nextSetBit(0); code >= 0; code = codes.nextSetBit(code + 1)) {
+                total += ingredientLiveRows[code];
+            }
+            return Math.min(total, liveRows);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of the matching live rows in {@code [from, to)}, sorted.
+     */
+    private long[] scan(RowFilter filter, int from, int to) {
+        return collect(filter, live.get(from, to), from);
+    }
+
+    private long[] scanPostings(RowFilter filter) {
+        BitSet candidates = new BitSet(rows);
+        for (int code = filter.include.nextSetBit(0); code >= 0; code = filter.include.nextSetBit(code + 1)) {
+            int[] posting = postings[code];
+            for (int i = 0; i < postingSizes[code]; i++) {
+                candidates.set(posting[i]);
+            }
+        }
+        candidates.and(live);
+        return collect(filter, candidates, 0);
+    }
+
+    private long[] collect(RowFilter filter, BitSet candidates, int rowOffset) {
+        long[] matches = new long[Math.min(Math.max(candidates.cardinality(), 1), 64)];
+        int matchCount = 0;
+        for (int bit = candidates.nextSetBit(0); bit >= 0; bit = candidates.nextSetBit(bit + 1)) {
+            int row = bit + rowOffset;
+            if (filter.matches(row)) {
+                if (matchCount == matches.length) {
+                    matches = Arrays.copyOf(matches, matches.length * 2);
+                }
+                matches[matchCount++] = ids[row];
+            }
+        }
+        matches = Arrays.copyOf(matches, matchCount);
+        Arrays.sort(matches);
+        return matches;
+    }
+
+    private final class SegmentScan extends RecursiveTask<long[]> {
+
+        private final RowFilter filter;
+        private final int from;
+        private final int to;
+        private final int segmentRows;
+
+        private SegmentScan(RowFilter filter, int from, int to, int segmentRows) {
+            this.filter = filter;
+            this.from = from;
+            this.to = to;
+            this.segmentRows = segmentRows;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= segmentRows) {
+                return scan(filter, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            SegmentScan left = new SegmentScan(filter, from, middle, segmentRows);
+            left.fork();
+            long[] right = new SegmentScan(filter, middle, to, segmentRows).compute();
+            return mergeSorted(left.join(), right);
+        }
+    }
+
+    private static long[] mergeSorted(long[] left, long[] right) {
+        long[] merged = new long[left.length + right.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < left.length && j < right.length) {
+            merged[k++] = left[i] <= right[j] ? left[i++] : right[j++];
+        }
+        while (i < left.length) {
+            merged[k++] = left[i++];
+        }
+        while (j < right.length) {
+            merged[k++] = right[j++];
+        }
+        return merged;
+    }
+
+    private List<Recipe> materialize(long[] sortedIds) {
+        List<Recipe> result = new ArrayList<>(sortedIds.length);
+        for (long id : sortedIds) {
+            result.add(materialize(rowById.get(id)));
+        }
+        return result;
+    }
+
+    private RowFilter compile(RecipeSearchCriteria criteria, List<SearchPlan.Step> steps) {
+        BitSet include = null;
+        if (criteria.hasIncludeIngredients()) {
+            include = codesContainingAny(criteria.includeIngredients());
+            if (include.isEmpty()) {
+                return null;
+            }
+        }
+        BitSet exclude = criteria.hasExcludeIngredients() ? codesContainingAny(criteria.excludeIngredients()) : null;
+        return new RowFilter(steps.toArray(new SearchPlan.Step[0]), criteria.vegetarian(), criteria.servings(),
+                include, exclude, criteria.instructions());
+    }
+
+    private BitSet codesContainingAny(List<String> terms) {
+        BitSet codes = new BitSet(lowerIngredientByCode.size());
+        for (int code = 0; code < lowerIngredientByCode.size(); code++) {
+            String ingredient = lowerIngredientByCode.get(code);
+            for (String term : terms) {
+                if (ingredient.contains(term)) {
+                    codes.set(code);
+                    break;
+                }
+            }
+        }
+        return codes;
+    }
+
+    private final class RowFilter {
+
+        private final SearchPlan.Step[] steps;
+        private final Boolean vegetarianFilter;
+        private final Integer servingsFilter;
+        private final BitSet include;
+        private final BitSet exclude;
+        private final String instructions;
+        private final byte[] instructionBytes;
+
+        private RowFilter(SearchPlan.Step[] steps, Boolean vegetarianFilter, Integer servingsFilter,
+                          BitSet include, BitSet exclude, String instructions) {
+            this.steps = steps;
+            this.vegetarianFilter = vegetarianFilter;
+            this.servingsFilter = servingsFilter;
+            this.include = include;
+            this.exclude = exclude;
+            this.instructions = instructions;
+            this.instructionBytes = instructions != null ? instructions.getBytes(StandardCharsets.UTF_8) : null;
+        }
+
+        boolean matches(int row) {
+            for (SearchPlan.Step step : steps) {
+                boolean passes = switch (step) {
+                    case VEGETARIAN -> vegetarian.get(row) == vegetarianFilter;
+                    case SERVINGS -> servings[row] == servingsFilter;
+                    case INCLUDE_INGREDIENTS -> hasAnyIngredient(row, include);
+                    case EXCLUDE_INGREDIENTS -> !hasAnyIngredient(row, exclude);
+                    case INSTRUCTIONS -> instructionsContain(row, instructions, instructionBytes);
+                };
+                if (!passes) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Rough relative cost of evaluating one row, used to decide whether a parallel scan pays off.
+         */
+        int costPerRow() {
+            int cost = 1;
+            for (SearchPlan.Step step : steps) {
+                cost += step == SearchPlan.Step.INSTRUCTIONS ? 8 : step == SearchPlan.Step.VEGETARIAN || step == SearchPlan.Step.SERVINGS ? 1 : 2;
+            }
+            return cost;
+        }
+    }
+
+    private boolean hasAnyIngredient(int row, BitSet codes) {
+        int end = ingredientStart[row] + ingredientCount[row];
+        for (int i = ingredientStart[row]; i < end; i++) {
+            if (codes.get(ingredientCodes[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the row's instructions contain the lower-case {@code term}, ignoring case. ASCII text is compared in
+     * the arena with its upper-case letters folded; anything else is decoded and lower-cased first.
+     */
+    private boolean instructionsContain(int row, String term, byte[] termBytes) {
+        if (!asciiInstructions.get(row)) {
+            String instructions = readText(instructionsOffset[row], instructionsLength[row]);
+            return instructions != null && instructions.toLowerCase(Locale.ROOT).contains(term);
+        }
+        return containsIgnoringAsciiCase(instructionsOffset[row], instructionsLength[row], termBytes);
+    }
+
+    private boolean containsIgnoringAsciiCase(int offset, int length, byte[] pattern) {
+        int last = offset + length - pattern.length;
+        outer:
+        for (int i = offset; i <= last; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                byte b = arena.get(i + j);
+                if ((b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b) != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void append(Recipe recipe, byte[] nameBytes, byte[] instructionBytes) {
+        ensureArenaCapacity((long) arenaSize + length(nameBytes) + length(instructionBytes));
+        ensureRowCapacity(rows + 1);
+        int row = rows++;
+        ids[row] = recipe.getId();
+        versions[row] = recipe.getVersion() != null ? recipe.getVersion() : 0;
+        servings[row] = recipe.getServings();
+        vegetarian.set(row, recipe.isVegetarian());
+        appendIngredients(row, recipe.getIngredients());
+
+        long name = appendText(nameBytes);
+        nameOffset[row] = (int) (name >>> 32);
+        nameLength[row] = (int) name;
+        long instructions = appendText(instructionBytes);
+        instructionsOffset[row] = (int) (instructions >>> 32);
+        instructionsLength[row] = (int) instructions;
+        asciiInstructions.set(row, isAscii(instructionBytes));
+
+        live.set(row);
+        liveRows++;
+        rowById.put(recipe.getId(), row);
+        updateStatistics(row, 1);
+    }
+
+    private void updateStatistics(int row, int delta) {
+        if (vegetarian.get(row)) {
+            vegetarianLiveRows += delta;
+        }
+        servingsLiveRows.merge(servings[row], delta, (current, change) -> current + change == 0 ? null : current + change);
+        int end = ingredientStart[row] + ingredientCount[row];
+        for (int i = ingredientStart[row]; i < end; i++) {
+            if (!isFirstOccurrence(row, i)) {
+                continue;
+            }
+            int code = ingredientCodes[i];
+            ingredientLiveRows[code] += delta;
+            if (delta > 0) {
+                addPosting(code, row);
+            }
+        }
+    }
+
+    private boolean isFirstOccurrence(int row, int index) {
+        for (int i = ingredientStart[row]; i < index; i++) {
+            if (ingredientCodes[i] == ingredientCodes[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void addPosting(int code, int row) {
+        int[] posting = postings[code];
+        if (posting == null) {
+            posting = new int[4];
+        } else if (postingSizes[code] == posting.length) {
+            posting = Arrays.copyOf(posting, posting.length * 2);
+        }
+        posting[postingSizes[code]++] = row;
+        postings[code] = posting;
+    }
+
+    private void appendIngredients(int row, String ingredients) {
+        ingredientStart[row] = ingredientCodesSize;
+        if (ingredients == null) {
+            ingredientCount[row] = -1;
+            return;
+        }
+        String[] parts = ingredients.split(INGREDIENT_SEPARATOR, -1);
+        if (ingredientCodesSize + parts.length > ingredientCodes.length) {
+            ingredientCodes = Arrays.copyOf(ingredientCodes, Math.max(ingredientCodes.length * 2, ingredientCodesSize + parts.length));
+        }
+        for (String part : parts) {
+            ingredientCodes[ingredientCodesSize++] = codeOf(part);
+        }
+        ingredientCount[row] = parts.length;
+    }
+
+    private int codeOf(String ingredient) {
+        Integer code = codeByIngredient.get(ingredient);
+        if (code == null) {
+            code = ingredientByCode.size();
+            if (code == postings.length) {
+                postings = Arrays.copyOf(postings, code * 2);
+                postingSizes = Arrays.copyOf(postingSizes, code * 2);
+                ingredientLiveRows = Arrays.copyOf(ingredientLiveRows, code * 2);
+            }
+            codeByIngredient.put(ingredient, code);
+            ingredientByCode.add(ingredient);
+            lowerIngredientByCode.add(ingredient.toLowerCase(Locale.ROOT));
+        }
+        return code;
+    }
+
+    private static byte[] utf8(String text) {
+        return text == null ? null : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static boolean isAscii(byte[] bytes) {
+        if (bytes != null) {
+            for (byte b : bytes) {
+                if (b < 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Grows the arena to hold {@code required} bytes, doubling up to {@value #MAX_ARENA_BYTES}.
+     *
+     * @throws IllegalStateException when {@code required} is beyond that cap
+     */
+    private void ensureArenaCapacity(long required) {
+        if (required <= arena.capacity()) {
+            return;
+        }
+        if (required > MAX_ARENA_BYTES) {
+            throw new IllegalStateException("Recipe text needs " + required + " bytes, the catalog holds at most " + MAX_ARENA_BYTES);
+        }
+        ByteBuffer grown = ByteBuffer.allocateDirect((int) Math.min(Math.max(2L * arena.capacity(), required), MAX_ARENA_BYTES));
+        grown.put(0, arena, 0, arenaSize);
+        arena = grown;
+    }
+
+    /**
+     * Copies {@code bytes} into the arena, which must have room for them, and returns offset and length packed
+     * into one long; a length of -1 encodes {@code null}.
+     */
+    private long appendText(byte[] bytes) {
+        if (bytes == null) {
+            return ((long) arenaSize << 32) | 0xFFFFFFFFL;
+        }
+        int offset = arenaSize;
+        arena.put(offset, bytes);
+        arenaSize += bytes.length;
+        return ((long) offset << 32) | (bytes.length & 0xFFFFFFFFL);
+    }
+
+    private String readText(int offset, int length) {
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        arena.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Recipe materialize(int row) {
+        String ingredients = null;
+        if (ingredientCount[row] >= 0) {
+            StringBuilder joined = new StringBuilder();
+            int end = ingredientStart[row] + ingredientCount[row];
+            for (int i = ingredientStart[row]; i < end; i++) {
+                if (i > ingredientStart[row]) {
+                    joined.append(INGREDIENT_SEPARATOR);
+                }
+                joined.append(ingredientByCode.get(ingredientCodes[i]));
+            }
+            ingredients = joined.toString();
+        }
+        return new Recipe(ids[row], readText(nameOffset[row], nameLength[row]), vegetarian.get(row), servings[row],
+                ingredients, readText(instructionsOffset[row], instructionsLength[row]), versions[row]);
+    }
+
+    private void kill(int row) {
+        live.clear(row);
+        liveRows--;
+        updateStatistics(row, -1);
+    }
+
+    private void compactIfNeeded() {
+        int dead = rows - liveRows;
+        if (dead < MIN_DEAD_ROWS_FOR_COMPACTION || dead < liveRows) {
+            return;
+        }
+        List<Recipe> survivors = new ArrayList<>(liveRows);
+        for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+            survivors.add(materialize(row));
+        }
+        reset(Math.max(INITIAL_ROWS, survivors.size()));
+        survivors.forEach(recipe -> append(recipe, utf8(recipe.getName()), utf8(recipe.getInstructions())));
+    }
+
+    private void reset(int capacity) {
+        rowById.clear();
+        codeByIngredient.clear();
+        ingredientByCode.clear();
+        lowerIngredientByCode.clear();
+        rows = 0;
+        liveRows = 0;
+        live.clear();
+        vegetarian.clear();
+        asciiInstructions.clear();
+        ids = new long[capacity];
+        versions = new long[capacity];
+        servings = new int[capacity];
+        ingredientStart = new int[capacity];
+        ingredientCount = new int[capacity];
+        nameOffset = new int[capacity];
+        nameLength = new int[capacity];
+        instructionsOffset = new int[capacity];
+        instructionsLength = new int[capacity];
+        ingredientCodes = new int[capacity * 4];
+        ingredientCodesSize = 0;
+        vegetarianLiveRows = 0;
+        servingsLiveRows.clear();
+        ingredientLiveRows = new int[INITIAL_CODES];
+        postings = new int[INITIAL_CODES][];
+        postingSizes = new int[INITIAL_CODES];
+        arena = ByteBuffer.allocateDirect(INITIAL_ARENA_BYTES);
+        arenaSize = 0;
+    }
+
+    private void ensureRowCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(ids.length * 2, required);
+        ids = Arrays.copyOf(ids, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        servings = Arrays.copyOf(servings, capacity);
+        ingredientStart = Arrays.copyOf(ingredientStart, capacity);
+        ingredientCount = Arrays.copyOf(ingredientCount, capacity);
+        nameOffset = Arrays.copyOf(nameOffset, capacity);
+        nameLength = Arrays.copyOf(nameLength, capacity);
+        instructionsOffset = Arrays.copyOf(instructionsOffset, capacity);
+        instructionsLength = Arrays.copyOf(instructionsLength, capacity);
+    }
+}
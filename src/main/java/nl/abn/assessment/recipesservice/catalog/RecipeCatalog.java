@@ -0,0 +1,164 @@
+package nl.abn.assessment.recipesservice.catalog;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import nl.abn.assessment.recipesservice.event.RecipeChangedEvent;
+import nl.abn.assessment.recipesservice.invalidation.RecipeInvalidation;
+import nl.abn.assessment.recipesservice.invalidation.RecipeVersions;
+import nl.abn.assessment.recipesservice.model.Recipe;
+import nl.abn.assessment.recipesservice.service.RecipeSearchCriteria;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * In-memory copy of the recipe catalogue that search indexes and caches are derived from.
+ * It stays empty until {@link RecipeCatalogLoader} loads it (see {@code recipes.catalog.enabled})
+ * and is then kept current from {@link RecipeChangedEvent}s once the writing transaction commits.
+ */
+@Component
+@Slf4j
+public class RecipeCatalog {
+
+    private final RecipesServiceProperties properties;
+
+    private final ColumnarRecipeStore store = new ColumnarRecipeStore();
+
+    private final SearchPlanner planner = new SearchPlanner();
+
+    private final ColumnarRecipeStore.ParallelScan parallelScan;
+
+    private final RecipeVersions versions = new RecipeVersions();
+
+    private volatile long watermark;
+
+    private volatile boolean loaded;
+
+    public RecipeCatalog(RecipesServiceProperties properties) {
+        this.properties = properties;
+        this.parallelScan = createParallelScan(properties.getCatalog().getParallelSearch());
+    }
+
+    private static ColumnarRecipeStore.ParallelScan createParallelScan(RecipesServiceProperties.ParallelSearch parallelSearch) {
+        if (!parallelSearch.isEnabled() || parallelSearch.getParallelism() < 2) {
+            return null;
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(parallelSearch.getParallelism(), forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("catalog-search-" + threadCount.incrementAndGet());
+            return thread;
+        }, null, false);
+        return new ColumnarRecipeStore.ParallelScan(pool, parallelSearch.getMinCost(), parallelSearch.getSegmentRows());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (parallelScan != null) {
+            parallelScan.pool().shutdown();
+        }
+    }
+
+    public synchronized void load(Collection<Recipe> snapshot, long watermark) {
+        store.clear();
+        snapshot.forEach(store::put);
+        this.watermark = watermark;
+        this.loaded = true;
+        log.info("Recipe catalog loaded with {} recipes at watermark {}", store.size(), watermark);
+    }
+
+    public void put(Recipe recipe) {
+        store.put(recipe);
+    }
+
+    public void remove(Long id) {
+        store.remove(id);
+    }
+
+    public Recipe get(Long id) {
+        return store.get(id);
+    }
+
+    public void forEach(Consumer<Recipe> consumer) {
+        store.forEach(consumer);
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    public long getWatermark() {
+        return watermark;
+    }
+
+    public synchronized void advanceWatermark(long seq) {
+        if (seq > watermark) {
+            watermark = seq;
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public boolean canServeSearch() {
+        return loaded && properties.getCatalog().isServeSearch();
+    }
+
+    public ColumnarRecipeStore.Result search(RecipeSearchCriteria criteria) {
+        return store.search(criteria, parallelScan);
+    }
+
+    /**
+     * Plans a search from the catalogue's statistics for evaluation by the database.
+     */
+    public SearchPlan planForDatabase(RecipeSearchCriteria criteria) {
+        return planner.plan(criteria, store).forDatabase();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onRecipeChanged(RecipeChangedEvent event) {
+        if (!loaded) {
+            return;
+        }
+        Long seq = event.change().getSeq();
+        if (seq != null && !versions.advance(event.recipeId(), seq)) {
+            return;
+        }
+        if (event.isDelete()) {
+            remove(event.recipeId());
+        } else {
+            put(event.recipe());
+        }
+        if (seq != null) {
+            advanceWatermark(seq);
+        }
+    }
+
+    /**
+     * Applies a change made on another instance by reloading the recipe, unless a newer version of it was applied
+     * already. The reload runs outside the lock so a slow database does not hold up local changes; the result is
+     * applied under it only if no newer version got there first, so an older reload can never overwrite a newer one.
+     */
+    public void apply(RecipeInvalidation invalidation, Function<Long, Optional<Recipe>> loader) {
+        Long id = invalidation.recipeId();
+        if (!loaded || versions.current(id) >= invalidation.version()) {
+            return;
+        }
+        Optional<Recipe> recipe = loader.apply(id);
+        synchronized (this) {
+            if (!versions.advance(id, invalidation.version())) {
+                return;
+            }
+            recipe.ifPresentOrElse(this::put, () -> remove(id));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package nl.abn.assessment.recipesservice.catalog;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import nl.abn.assessment.recipesservice.invalidation.InvalidationListener;
+import nl.abn.assessment.recipesservice.invalidation.RecipeInvalidation;
+import nl.abn.assessment.recipesservice.model.Recipe;
+import nl.abn.assessment.recipesservice.model.RecipeChange;
+import nl.abn.assessment.recipesservice.repository.RecipeChangeRepository;
+import nl.abn.assessment.recipesservice.repository.RecipeRepository;
+import nl.abn.assessment.recipesservice.service.RecipeSearchCriteria;
+import nl.abn.assessment.recipesservice.sharding.ShardedRecipeStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Warms the {@link RecipeCatalog} before the application reports ready: from the binary
+ * snapshot when one exists, catching up on the change log after its watermark, or from a full
+ * table scan otherwise. Snapshots are rewritten periodically and on shutdown. Changes made by other
+ * instances arrive through the invalidation bus and are reloaded from the database.
+ * <p>
+ * Change-log sequence numbers are assigned before their transactions commit, so a change below the watermark can
+ * become visible after it was taken. The catch-up therefore re-reads the last {@code recipes.catalog.catch-up-window}
+ * sequence numbers below the watermark as well; recipes changed there are simply reloaded. This holds for the
+ * watermark of a snapshot, too: the snapshot may have been written before such a change showed up. A snapshot older
+ * than the retained change log is ignored.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "recipes.catalog", name = "enabled", havingValue = "true")
+public class RecipeCatalogLoader implements ApplicationRunner, InvalidationListener {
+
+    private final RecipeCatalog catalog;
+
+    private final RecipeRepository recipeRepository;
+
+    private final RecipeChangeRepository recipeChangeRepository;
+
+    private final RecipesServiceProperties properties;
+
+    private final ObjectProvider<ShardedRecipeStore> shardedRecipeStore;
+
+    private final RecipeSnapshotStore snapshotStore = new RecipeSnapshotStore();
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        if (!loadFromSnapshot()) {
+            long watermark = recipeChangeRepository.findLatestSeq();
+            catalog.load(loadAll(), watermark);
+        }
+        catchUp();
+        log.info("Recipe catalog warm start took {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public void onInvalidation(RecipeInvalidation invalidation) {
+        catalog.apply(invalidation, this::findById);
+    }
+
+    @Scheduled(fixedDelayString = "${recipes.catalog.snapshot.interval:PT5M}",
+            initialDelayString = "${recipes.catalog.snapshot.interval:PT5M}")
+    public void writeSnapshot() {
+        RecipesServiceProperties.Snapshot snapshot = properties.getCatalog().getSnapshot();
+        if (!snapshot.isEnabled() || !catalog.isLoaded()) {
+            return;
+        }
+        try {
+            snapshotStore.write(Path.of(snapshot.getPath()), catalog);
+            log.debug("Recipe snapshot written at watermark {}", catalog.getWatermark());
+        } catch (IOException e) {
+            log.warn("Failed to write recipe snapshot: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void writeSnapshotOnShutdown() {
+        writeSnapshot();
+    }
+
+    private boolean loadFromSnapshot() {
+        RecipesServiceProperties.Snapshot snapshot = properties.getCatalog().getSnapshot();
+        Path path = Path.of(snapshot.getPath());
+        if (!snapshot.isEnabled() || !Files.isRegularFile(path)) {
+            return false;
+        }
+        try {
+            RecipeSnapshotStore.Snapshot loaded = snapshotStore.read(path);
+            long oldestSeq = recipeChangeRepository.findOldestSeq();
+            if (oldestSeq > loaded.watermark() + 1) {
+                log.info("Ignoring recipe snapshot {}: changes after its watermark {} were pruned", path, loaded.watermark());
+                return false;
+            }
+            catalog.load(loaded.recipes(), loaded.watermark());
+            return true;
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable recipe snapshot {}: {}", path, e.getMessage());
+            return false;
+        }
+    }
+
+    private void catchUp() {
+        long from = Math.max(0, catalog.getWatermark() - properties.getCatalog().getCatchUpWindow());
+        List<RecipeChange> changes = recipeChangeRepository.findBySeqGreaterThanOrderBySeqAsc(from);
+        if (changes.isEmpty()) {
+            return;
+        }
+        Map<Long, RecipeChange> latestChanges = new LinkedHashMap<>();
+        changes.forEach(change -> latestChanges.put(change.getRecipeId(), change));
+        latestChanges.values().forEach(change -> catalog.apply(RecipeInvalidation.of(change), this::findById));
+        catalog.advanceWatermark(changes.get(changes.size() - 1).getSeq());
+        log.info("Recipe catalog replayed {} changes for {} recipes", changes.size(), latestChanges.size());
+    }
+
+    private List<Recipe> loadAll() {
+        ShardedRecipeStore shards = shardedRecipeStore.getIfAvailable();
+        return shards != null
+                ? shards.search(RecipeSearchCriteria.of(null, null, null, null, null))
+                : recipeRepository.findAll();
+    }
+
+    private Optional<Recipe> findById(Long id) {
+        ShardedRecipeStore shards = shardedRecipeStore.getIfAvailable();
+        return shards != null ? shards.findById(id) : recipeRepository.findById(id);
+    }
+}
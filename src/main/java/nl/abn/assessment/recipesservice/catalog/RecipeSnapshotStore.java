@@ -0,0 +1,114 @@
+package nl.abn.assessment.recipesservice.catalog;
+
+import nl.abn.assessment.recipesservice.model.Recipe;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes the binary catalogue snapshot.
+ * <p>
+ * Layout (big-endian): magic, format version, watermark, record count, followed by one record per
+ * recipe: id, version, vegetarian flag, servings and the length-prefixed UTF-8 name, ingredients and
+ * instructions. A length of -1 encodes {@code null}. Snapshots in an older format are rejected, which makes the
+ * loader fall back to a table scan.
+ */
+public class RecipeSnapshotStore {
+
+    static final int MAGIC = 0x52435053;
+    static final int FORMAT_VERSION = 2;
+
+    public record Snapshot(long watermark, List<Recipe> recipes) {
+    }
+
+    public void write(Path path, RecipeCatalog catalog) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        long watermark = catalog.getWatermark();
+        List<Recipe> recipes = new ArrayList<>(catalog.size());
+        catalog.forEach(recipes::add);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(watermark);
+            out.writeInt(recipes.size());
+            for (Recipe recipe : recipes) {
+                out.writeLong(recipe.getId());
+                out.writeLong(recipe.getVersion() != null ? recipe.getVersion() : 0);
+                out.writeBoolean(recipe.isVegetarian());
+                out.writeInt(recipe.getServings());
+                writeString(out, recipe.getName());
+                writeString(out, recipe.getIngredients());
+                writeString(out, recipe.getInstructions());
+            }
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the whole snapshot into heap {@link Recipe}s through a buffered stream; the catalogue is rebuilt from them
+     * anyway, so mapping the file would not save a copy.
+     */
+    public Snapshot read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 64 * 1024))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a recipe snapshot: " + path);
+            }
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported recipe snapshot format version " + version);
+            }
+            long watermark = in.readLong();
+            int count = in.readInt();
+            if (count < 0) {
+                throw new IOException("Corrupt recipe snapshot: " + path);
+            }
+            List<Recipe> recipes = new ArrayList<>(Math.min(count, 1 << 16));
+            for (int i = 0; i < count; i++) {
+                long id = in.readLong();
+                long recipeVersion = in.readLong();
+                boolean vegetarian = in.readBoolean();
+                int servings = in.readInt();
+                recipes.add(new Recipe(id, readString(in), vegetarian, servings, readString(in), readString(in), recipeVersion));
+            }
+            return new Snapshot(watermark, recipes);
+        } catch (EOFException e) {
+            throw new IOException("Truncated recipe snapshot: " + path, e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length < length) {
+            throw new EOFException();
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,67 @@
+package nl.abn.assessment.recipesservice.catalog;
+
+import nl.abn.assessment.recipesservice.service.RecipeSearchCriteria;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * How a search is evaluated: the access path that produces candidate rows and the order in which
+ * the remaining filters are applied to them.
+ */
+public record SearchPlan(AccessPath accessPath, List<Step> steps, long estimatedRows) {
+
+    public enum AccessPath {
+        FULL_SCAN, INGREDIENT_POSTINGS, DATABASE, SHARDED_SCAN, PROJECTION
+    }
+
+    public enum Step {
+        VEGETARIAN, SERVINGS, INCLUDE_INGREDIENTS, EXCLUDE_INGREDIENTS, INSTRUCTIONS
+    }
+
+    public static final long UNKNOWN_ROWS = -1;
+
+    /**
+     * The filters in the order the request declares them, without estimates.
+     */
+    public static SearchPlan declaredOrder(RecipeSearchCriteria criteria, AccessPath accessPath) {
+        List<Step> steps = new ArrayList<>();
+        if (criteria.vegetarian() != null) {
+            steps.add(Step.VEGETARIAN);
+        }
+        if (criteria.servings() != null) {
+            steps.add(Step.SERVINGS);
+        }
+        if (criteria.hasInstructions()) {
+            steps.add(Step.INSTRUCTIONS);
+        }
+        if (criteria.hasIncludeIngredients()) {
+            steps.add(Step.INCLUDE_INGREDIENTS);
+        }
+        if (criteria.hasExcludeIngredients()) {
+            steps.add(Step.EXCLUDE_INGREDIENTS);
+        }
+        return new SearchPlan(accessPath, List.copyOf(steps), UNKNOWN_ROWS);
+    }
+
+    /**
+     * The same filter order for evaluation by the database, which has no posting lists: a filter that
+     * was answered by the access path becomes the first predicate instead.
+     */
+    public SearchPlan forDatabase() {
+        if (accessPath != AccessPath.INGREDIENT_POSTINGS) {
+            return new SearchPlan(AccessPath.DATABASE, steps, estimatedRows);
+        }
+        List<Step> databaseSteps = new ArrayList<>(steps.size() + 1);
+        databaseSteps.add(Step.INCLUDE_INGREDIENTS);
+        databaseSteps.addAll(steps);
+        return new SearchPlan(AccessPath.DATABASE, List.copyOf(databaseSteps), estimatedRows);
+    }
+
+    public String explain(long actualRows) {
+        return "access=" + accessPath
+                + " steps=" + steps
+                + " estimatedRows=" + (estimatedRows == UNKNOWN_ROWS ? "unknown" : estimatedRows)
+                + " actualRows=" + actualRows;
+    }
+}
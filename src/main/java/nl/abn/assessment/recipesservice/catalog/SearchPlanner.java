@@ -0,0 +1,67 @@
+package nl.abn.assessment.recipesservice.catalog;
+
+import nl.abn.assessment.recipesservice.service.RecipeSearchCriteria;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Orders search filters by estimated selectivity. Cheap equality and ingredient filters are sorted so
+ * the one removing the most rows runs first; the instructions substring check is always verified last.
+ * When the included ingredients are rare enough their posting lists become the access path instead of
+ * a full scan.
+ */
+public class SearchPlanner {
+
+    static final double POSTINGS_MAX_FRACTION = 0.3;
+    static final double INSTRUCTIONS_SELECTIVITY = 0.1;
+
+    private record Estimate(SearchPlan.Step step, double selectivity) {
+    }
+
+    public SearchPlan plan(RecipeSearchCriteria criteria, CardinalityStatistics statistics) {
+        long liveRows = statistics.liveRows();
+        if (liveRows == 0) {
+            return new SearchPlan(SearchPlan.AccessPath.FULL_SCAN, SearchPlan.declaredOrder(criteria, SearchPlan.AccessPath.FULL_SCAN).steps(), 0);
+        }
+        List<Estimate> estimates = new ArrayList<>();
+        if (criteria.vegetarian() != null) {
+            estimates.add(new Estimate(SearchPlan.Step.VEGETARIAN, fraction(statistics.vegetarianRows(criteria.vegetarian()), liveRows)));
+        }
+        if (criteria.servings() != null) {
+            estimates.add(new Estimate(SearchPlan.Step.SERVINGS, fraction(statistics.servingsRows(criteria.servings()), liveRows)));
+        }
+        double includeSelectivity = 1;
+        if (criteria.hasIncludeIngredients()) {
+            includeSelectivity = fraction(statistics.ingredientRows(criteria.includeIngredients()), liveRows);
+            estimates.add(new Estimate(SearchPlan.Step.INCLUDE_INGREDIENTS, includeSelectivity));
+        }
+        if (criteria.hasExcludeIngredients()) {
+            estimates.add(new Estimate(SearchPlan.Step.EXCLUDE_INGREDIENTS, 1 - fraction(statistics.ingredientRows(criteria.excludeIngredients()), liveRows)));
+        }
+        estimates.sort(Comparator.comparingDouble(Estimate::selectivity));
+
+        double selectivity = 1;
+        List<SearchPlan.Step> steps = new ArrayList<>();
+        for (Estimate estimate : estimates) {
+            selectivity *= estimate.selectivity();
+            steps.add(estimate.step());
+        }
+        if (criteria.hasInstructions()) {
+            selectivity *= INSTRUCTIONS_SELECTIVITY;
+            steps.add(SearchPlan.Step.INSTRUCTIONS);
+        }
+
+        SearchPlan.AccessPath accessPath = SearchPlan.AccessPath.FULL_SCAN;
+        if (criteria.hasIncludeIngredients() && includeSelectivity <= POSTINGS_MAX_FRACTION) {
+            accessPath = SearchPlan.AccessPath.INGREDIENT_POSTINGS;
+            steps.remove(SearchPlan.Step.INCLUDE_INGREDIENTS);
+        }
+        return new SearchPlan(accessPath, List.copyOf(steps), Math.round(liveRows * selectivity));
+    }
+
+    private static double fraction(long rows, long liveRows) {
+        return Math.min(1.0, (double) rows / liveRows);
+    }
+}
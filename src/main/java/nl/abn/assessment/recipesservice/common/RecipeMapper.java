@@ -2,8 +2,10 @@ package nl.abn.assessment.recipesservice.common;
 
 import nl.abn.assessment.recipesservice.model.Recipe;
 import nl.abn.assessment.recipesservice.model.RecipeDto;
+import nl.abn.assessment.recipesservice.model.RecipeRow;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
 import org.mapstruct.Named;
 import org.mapstruct.factory.Mappers;
 
@@ -20,16 +22,39 @@ public interface RecipeMapper {
     @Mapping(source = "servings", target = "servings")
     @Mapping(source = "ingredients", target = "ingredients", qualifiedByName = "ingredientsToString")
     @Mapping(source = "instructions", target = "instructions")
+    @Mapping(target = "version", ignore = true)
     Recipe toEntity(RecipeDto recipeDto);
 
+    /**
+     * Copies the editable fields onto an existing recipe, leaving its id and version to the persistence layer.
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(source = "name", target = "name")
+    @Mapping(source = "vegetarian", target = "vegetarian")
+    @Mapping(source = "servings", target = "servings")
+    @Mapping(source = "ingredients", target = "ingredients", qualifiedByName = "ingredientsToString")
+    @Mapping(source = "instructions", target = "instructions")
+    @Mapping(target = "version", ignore = true)
+    void updateEntity(RecipeDto recipeDto, @MappingTarget Recipe recipe);
+
     @Mapping(source = "id", target = "id")
     @Mapping(source = "name", target = "name")
     @Mapping(source = "vegetarian", target = "vegetarian")
     @Mapping(source = "servings", target = "servings")
     @Mapping(source = "ingredients", target = "ingredients", qualifiedByName = "stringToIngredients")
     @Mapping(source = "instructions", target = "instructions")
+    @Mapping(source = "version", target = "version")
     RecipeDto toDto(Recipe recipe);
 
+    @Mapping(source = "id", target = "id")
+    @Mapping(source = "name", target = "name")
+    @Mapping(source = "vegetarian", target = "vegetarian")
+    @Mapping(source = "servings", target = "servings")
+    @Mapping(source = "ingredients", target = "ingredients", qualifiedByName = "stringToIngredients")
+    @Mapping(source = "instructions", target = "instructions")
+    @Mapping(source = "version", target = "version")
+    RecipeDto toDto(RecipeRow recipeRow);
+
     @Named("ingredientsToString")
     default String ingredientsToString(List<String> ingredients) {
         if (ingredients == null || ingredients.isEmpty()) {
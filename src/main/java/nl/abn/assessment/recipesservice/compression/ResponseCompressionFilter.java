@@ -0,0 +1,126 @@
+package nl.abn.assessment.recipesservice.compression;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Gzip-compresses {@code /recipes} and {@code /recipe/{id}} responses whose content type is enabled
+ * under {@code recipes.compression.content-types} and whose body reaches the configured size.
+ * Bodies that already carry a {@code Content-Encoding}, such as precompressed cache entries, are passed
+ * through untouched.
+ * <p>
+ * Every response on those paths varies on {@code Accept-Encoding}, compressed or not. Only requests that accept gzip
+ * and may be answered with an enabled content type are buffered; the rest stream straight through.
+ */
+@Component
+@ConditionalOnProperty(prefix = "recipes.compression", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+
+    private static final String GZIP = "gzip";
+
+    private final RecipesServiceProperties.Compression properties;
+
+    private final MeterRegistry meterRegistry;
+
+    public ResponseCompressionFilter(RecipesServiceProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties.getCompression();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !(path.equals("/recipes") || path.startsWith("/recipe/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!Gzip.isAccepted(request.getHeader(HttpHeaders.ACCEPT_ENCODING)) || !acceptsCompressibleType(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+
+        String contentType = wrapper.getContentType();
+        int size = wrapper.getContentSize();
+        if (wrapper.getHeader(HttpHeaders.CONTENT_ENCODING) != null) {
+            meterRegistry.counter("recipes.compression.precompressed", "contentType", mimeType(contentType)).increment();
+            wrapper.copyBodyToResponse();
+            return;
+        }
+        if (size < properties.getMinResponseBytes() || !properties.isCompressible(contentType)) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        long start = System.nanoTime();
+        byte[] compressed = Gzip.compress(wrapper.getContentAsByteArray(), 0, size);
+        long elapsed = System.nanoTime() - start;
+        record(contentType, size, compressed.length, elapsed);
+
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+        response.setContentLength(compressed.length);
+        response.getOutputStream().write(compressed);
+    }
+
+    /**
+     * Whether the {@code Accept} header leaves room for a content type that is compressed; the type actually written
+     * is checked again once the handler has run.
+     */
+    private boolean acceptsCompressibleType(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        try {
+            return MediaType.parseMediaTypes(accept).stream()
+                    .anyMatch(mediaType -> mediaType.isWildcardSubtype() || properties.isCompressible(mediaType.toString()));
+        } catch (InvalidMediaTypeException e) {
+            return true;
+        }
+    }
+
+    private void record(String contentType, int originalBytes, int compressedBytes, long nanos) {
+        String mimeType = mimeType(contentType);
+        Timer.builder("recipes.compression.time")
+                .description("Time spent gzip-compressing response bodies")
+                .tag("contentType", mimeType)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(nanos));
+        DistributionSummary.builder("recipes.compression.ratio")
+                .description("Uncompressed size divided by compressed size")
+                .tag("contentType", mimeType)
+                .register(meterRegistry)
+                .record((double) originalBytes / compressedBytes);
+        meterRegistry.counter("recipes.compression.bytes.saved", "contentType", mimeType)
+                .increment(originalBytes - compressedBytes);
+    }
+
+    private static String mimeType(String contentType) {
+        if (contentType == null) {
+            return "none";
+        }
+        int parameters = contentType.indexOf(';');
+        return (parameters < 0 ? contentType : contentType.substring(0, parameters)).trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,223 @@
+package nl.abn.assessment.recipesservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "recipes")
+public class RecipesServiceProperties {
+
+    private Catalog catalog = new Catalog();
+
+    private ResponseCache responseCache = new ResponseCache();
+
+    private Compression compression = new Compression();
+
+    private RequestLog requestLog = new RequestLog();
+
+    private Sharding sharding = new Sharding();
+
+    private Invalidation invalidation = new Invalidation();
+
+    private Importer importer = new Importer();
+
+    private TextSearch textSearch = new TextSearch();
+
+    private SearchProjection searchProjection = new SearchProjection();
+
+    private RateLimit rateLimit = new RateLimit();
+
+    private Jfr jfr = new Jfr();
+
+    private QueryStats queryStats = new QueryStats();
+
+    @Data
+    public static class Catalog {
+        private boolean enabled;
+        private boolean serveSearch = true;
+        /**
+         * Change-log sequence numbers below the load watermark that the startup catch-up reads again, for changes that
+         * committed after changes with higher numbers.
+         */
+        private long catchUpWindow = 1000;
+        private Snapshot snapshot = new Snapshot();
+        private ParallelSearch parallelSearch = new ParallelSearch();
+    }
+
+    @Data
+    public static class Snapshot {
+        private boolean enabled = true;
+        private String path = "data/recipes.snapshot";
+        private Duration interval = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class ParallelSearch {
+        private boolean enabled = true;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private long minCost = 500_000;
+        private int segmentRows = 16_384;
+    }
+
+    @Data
+    public static class ResponseCache {
+        private boolean enabled = true;
+        private long maxEntries = 10_000;
+    }
+
+    @Data
+    public static class Compression {
+        private boolean enabled = true;
+        private int minResponseBytes = 2048;
+        private Map<String, Boolean> contentTypes = new LinkedHashMap<>(Map.of(
+                "application/json", true,
+                "application/x-jackson-smile", false,
+                "application/cbor", false));
+
+        public boolean isCompressible(String contentType) {
+            if (!enabled || contentType == null) {
+                return false;
+            }
+            int parameters = contentType.indexOf(';');
+            String mimeType = (parameters < 0 ? contentType : contentType.substring(0, parameters)).trim().toLowerCase(Locale.ROOT);
+            return contentTypes.getOrDefault(mimeType, false);
+        }
+    }
+
+    @Data
+    public static class RequestLog {
+        private boolean enabled = true;
+        private double defaultSampleRate = 0.01;
+        /**
+         * Sample rate per endpoint, keyed by operation id (e.g. {@code searchRecipes}).
+         */
+        private Map<String, Double> sampleRates = new LinkedHashMap<>();
+
+        public double sampleRate(String operation) {
+            return sampleRates.getOrDefault(operation, defaultSampleRate);
+        }
+    }
+
+    @Data
+    public static class Sharding {
+        private boolean enabled;
+        private int virtualNodes = 128;
+        /**
+         * Name of the shard whose sequence hands out recipe ids; keep it when shards are added or reordered.
+         */
+        private String idSequenceShard;
+        private boolean rebalanceOnStartup = true;
+        private List<Shard> shards = new ArrayList<>();
+    }
+
+    @Data
+    public static class Shard {
+        private String name;
+        private String url;
+        private String username = "sa";
+        private String password = "";
+        private int maximumPoolSize = 10;
+    }
+
+    @Data
+    public static class Invalidation {
+        private boolean enabled = true;
+        private Duration pollInterval = Duration.ofSeconds(1);
+        private int batchSize = 500;
+        /**
+         * How long a skipped change-log sequence number is looked up again before it is taken for a rolled-back write.
+         */
+        private Duration gapTimeout = Duration.ofMinutes(1);
+        /**
+         * How long {@code recipe_change} rows are kept; the newest row is always kept so the sequence stays visible.
+         */
+        private Duration retention = Duration.ofDays(7);
+        private Duration retentionInterval = Duration.ofHours(1);
+    }
+
+    @Data
+    public static class Importer {
+        /**
+         * Local NDJSON or CSV file to import on startup.
+         */
+        private String file;
+        private int batchSize = 500;
+        private int queueCapacity = 4;
+        private int maxReportedErrors = 100;
+        private long progressInterval = 100_000;
+    }
+
+    @Data
+    public static class TextSearch {
+        private boolean enabled = true;
+        private int topK = 20;
+        private double k1 = 1.2;
+        private double b = 0.75;
+        private double nameBoost = 2.0;
+    }
+
+    @Data
+    public static class SearchProjection {
+        private boolean enabled = true;
+        /**
+         * How often recipes inserted directly into the database are projected.
+         */
+        private Duration catchUpInterval = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class RateLimit {
+        private boolean enabled;
+        private Limit defaults = new Limit();
+        /**
+         * Limits for individual principals, overriding {@link #defaults}.
+         */
+        private Map<String, Limit> principals = new LinkedHashMap<>();
+        private long defaultCost = 1;
+        /**
+         * Tokens charged per request, keyed by operation id (e.g. {@code searchRecipes}).
+         */
+        private Map<String, Long> costs = new LinkedHashMap<>();
+        private Duration evictionInterval = Duration.ofMinutes(1);
+
+        public Limit limit(String principal) {
+            return principals.getOrDefault(principal, defaults);
+        }
+
+        public long cost(String operation) {
+            return costs.getOrDefault(operation, defaultCost);
+        }
+    }
+
+    @Data
+    public static class Limit {
+        private long capacity = 100;
+        private double refillPerSecond = 20;
+    }
+
+    @Data
+    public static class Jfr {
+        private boolean enabled = false;
+        private Duration maxAge = Duration.ofMinutes(10);
+        private Duration slowOperationThreshold = Duration.ofMillis(100);
+        private int maxEvents = 50;
+        private Duration window = Duration.ofMinutes(5);
+        private String dumpDirectory = "data/jfr";
+    }
+
+    @Data
+    public static class QueryStats {
+        private Duration slowQueryThreshold = Duration.ofMillis(200);
+        /**
+         * Share of slow searches whose SQL is logged.
+         */
+        private double slowQuerySampleRate = 0.1;
+    }
+}
@@ -0,0 +1,54 @@
+package nl.abn.assessment.recipesservice.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.RequiredArgsConstructor;
+import nl.abn.assessment.recipesservice.cache.RecipeJsonCacheInterceptor;
+import nl.abn.assessment.recipesservice.logging.SampledRequestLogInterceptor;
+import nl.abn.assessment.recipesservice.ratelimit.RateLimitInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+    public static final MediaType APPLICATION_CBOR = MediaType.APPLICATION_CBOR;
+
+    private final ObjectProvider<SampledRequestLogInterceptor> requestLogInterceptor;
+
+    private final ObjectProvider<RateLimitInterceptor> rateLimitInterceptor;
+
+    private final ObjectProvider<RecipeJsonCacheInterceptor> recipeJsonCacheInterceptor;
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        requestLogInterceptor.ifAvailable(registry::addInterceptor);
+        rateLimitInterceptor.ifAvailable(interceptor -> registry.addInterceptor(interceptor).addPathPatterns("/recipe/**", "/recipes/**"));
+        recipeJsonCacheInterceptor.ifAvailable(interceptor -> registry.addInterceptor(interceptor).addPathPatterns("/recipe/*"));
+    }
+
+    /**
+     * Adds Smile and CBOR encodings for internal consumers. They are appended after the JSON converter,
+     * so JSON stays the default when the client does not ask for a binary type.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new MappingJackson2SmileHttpMessageConverter(
+                objectMapperBuilder.getObject().factory(new SmileFactory()).build()));
+        converters.add(new MappingJackson2CborHttpMessageConverter(
+                objectMapperBuilder.getObject().factory(new CBORFactory()).build()));
+    }
+}
@@ -3,10 +3,13 @@ package nl.abn.assessment.recipesservice.controller;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import nl.abn.assessment.recipesservice.api.RecipeApi;
+import nl.abn.assessment.recipesservice.model.DeleteRecipeResponse;
 import nl.abn.assessment.recipesservice.model.RecipeDto;
+import nl.abn.assessment.recipesservice.service.RecipeSearchResult;
 import nl.abn.assessment.recipesservice.service.RecipeService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -16,36 +19,46 @@ import java.util.List;
 @Slf4j
 public class RecipeController implements RecipeApi {
 
-    private static final String DELETE_RECIPE_200_RESPONSE = "{ \"message\": \"Recipe deleted successfully\" }";
+    private static final String DELETE_RECIPE_200_MESSAGE = "Recipe deleted successfully";
+    private static final String SEARCH_PLAN_HEADER = "X-Search-Plan";
 
     private final RecipeService recipeService;
 
     public ResponseEntity<RecipeDto> addRecipe(RecipeDto recipeDto) {
-        log.debug("Adding recipe: {}", recipeDto);
+        log.debug("Adding recipe: {}", recipeDto.getName());
         RecipeDto recipeResponse = recipeService.addRecipe(recipeDto);
         return new ResponseEntity<>(recipeResponse, HttpStatus.CREATED);
     }
 
     public ResponseEntity<RecipeDto> getRecipeById(Long id) {
-        log.info("Getting recipe by id: {}", id);
+        log.debug("Getting recipe by id: {}", id);
         RecipeDto recipe = recipeService.getRecipeById(id);
         return new ResponseEntity<>(recipe, HttpStatus.OK);
     }
 
     public ResponseEntity<RecipeDto> updateRecipeById(Long id, RecipeDto recipe) {
-        log.info("Updating recipe with id: {}", id);
+        log.debug("Updating recipe with id: {}", id);
         RecipeDto recipeResponse = recipeService.updateRecipeById(id, recipe);
         return new ResponseEntity<>(recipeResponse, HttpStatus.OK);
     }
 
-    public ResponseEntity<String> deleteRecipeById(Long id) {
-        log.info("Deleting recipe with id: {}", id);
+    public ResponseEntity<DeleteRecipeResponse> deleteRecipeById(Long id) {
+        log.debug("Deleting recipe with id: {}", id);
         recipeService.deleteRecipeById(id);
-        return ResponseEntity.ok(DELETE_RECIPE_200_RESPONSE);
+        return ResponseEntity.ok(new DeleteRecipeResponse().message(DELETE_RECIPE_200_MESSAGE));
     }
 
-    public ResponseEntity<List<RecipeDto>> searchRecipes(Boolean vegetarian, Integer servings, List<String> includeIngredients, List<String> excludeIngredients, String instructions) {
-        log.info("Searching recipes with vegetarian: {}, servings: {}, includeIngredients: {}, excludeIngredients: {}, instructions: {}", vegetarian, servings, includeIngredients, excludeIngredients, instructions);
+    public ResponseEntity<List<RecipeDto>> searchRecipes(Boolean vegetarian, Integer servings, List<String> includeIngredients, List<String> excludeIngredients, String instructions, String q, Boolean explain) {
+        if (log.isDebugEnabled()) {
+            log.debug("Searching recipes with vegetarian: {}, servings: {}, includeIngredients: {}, excludeIngredients: {}, instructions: {}, q: {}", vegetarian, servings, includeIngredients, excludeIngredients, instructions, q);
+        }
+        if (StringUtils.hasText(q)) {
+            return ResponseEntity.ok(recipeService.rankedSearch(q, vegetarian, servings, instructions, includeIngredients, excludeIngredients));
+        }
+        if (Boolean.TRUE.equals(explain)) {
+            RecipeSearchResult result = recipeService.explainSearch(vegetarian, servings, instructions, includeIngredients, excludeIngredients);
+            return ResponseEntity.ok().header(SEARCH_PLAN_HEADER, result.explain()).body(result.recipes());
+        }
         List<RecipeDto> recipes = recipeService.searchRecipes(vegetarian, servings, instructions, includeIngredients, excludeIngredients);
         return new ResponseEntity<>(recipes, HttpStatus.OK);
     }
@@ -0,0 +1,19 @@
+package nl.abn.assessment.recipesservice.event;
+
+import nl.abn.assessment.recipesservice.model.Recipe;
+import nl.abn.assessment.recipesservice.model.RecipeChange;
+
+/**
+ * Published by {@code RecipeService} for every write. {@code recipe} is the state after the
+ * write and is {@code null} for deletes.
+ */
+public record RecipeChangedEvent(RecipeChange change, Recipe recipe) {
+
+    public Long recipeId() {
+        return change.getRecipeId();
+    }
+
+    public boolean isDelete() {
+        return change.getOperation() == RecipeChange.Operation.DELETED;
+    }
+}
@@ -0,0 +1,19 @@
+package nl.abn.assessment.recipesservice.exception;
+
+/**
+ * Thrown when a principal has used up its request budget. Like {@link RecipeNotFoundException} it is raised on a hot
+ * path under load, so no stack trace is captured.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String message, long retryAfterSeconds) {
+        super(message, null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,16 @@
+package nl.abn.assessment.recipesservice.exception;
+
+/**
+ * Thrown when an update carries a version that is no longer the recipe's current one, i.e. somebody else updated it
+ * after the caller read it.
+ */
+public class RecipeConflictException extends RuntimeException {
+
+    public RecipeConflictException(Long id, Long expectedVersion, Long currentVersion) {
+        super("Recipe " + id + " is at version " + currentVersion + ", not " + expectedVersion, null, false, false);
+    }
+
+    public RecipeConflictException(Long id) {
+        super("Recipe " + id + " was updated concurrently", null, false, false);
+    }
+}
@@ -1,7 +1,30 @@
 package nl.abn.assessment.recipesservice.exception;
 
+/**
+ * Thrown for every lookup miss, so it is kept cheap: no stack trace is captured and the message for an id is only
+ * built when somebody asks for it.
+ */
 public class RecipeNotFoundException extends RuntimeException {
+
+    private final Long id;
+
+    public RecipeNotFoundException(Long id) {
+        super(null, null, false, false);
+        this.id = id;
+    }
+
     public RecipeNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
+        this.id = null;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getMessage() {
+        String message = super.getMessage();
+        return message != null ? message : "Recipe not found with id: " + id;
     }
 }
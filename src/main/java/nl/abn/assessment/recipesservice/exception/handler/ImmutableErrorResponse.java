@@ -0,0 +1,45 @@
+package nl.abn.assessment.recipesservice.exception.handler;
+
+import nl.abn.assessment.recipesservice.model.ErrorResponse;
+
+/**
+ * An {@link ErrorResponse} that rejects changes, so one instance can be served to every request that fails the same way.
+ */
+final class ImmutableErrorResponse extends ErrorResponse {
+
+    ImmutableErrorResponse(int status, String message, String detailedMessage) {
+        super.setStatus(status);
+        super.setMessage(message);
+        super.setDetailedMessage(detailedMessage);
+    }
+
+    @Override
+    public ErrorResponse status(Integer status) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setStatus(Integer status) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ErrorResponse message(String message) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setMessage(String message) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ErrorResponse detailedMessage(String detailedMessage) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setDetailedMessage(String detailedMessage) {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,33 @@
+package nl.abn.assessment.recipesservice.exception.handler;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets at most one log line through per interval and counts what it swallowed in between.
+ */
+class LogRateLimiter {
+
+    private final long intervalNanos;
+
+    private final AtomicLong nextPermitAt = new AtomicLong(Long.MIN_VALUE);
+
+    private final AtomicLong suppressed = new AtomicLong();
+
+    LogRateLimiter(long intervalNanos) {
+        this.intervalNanos = intervalNanos;
+    }
+
+    /**
+     * Returns -1 when the caller should stay quiet, otherwise the number of events suppressed since the last
+     * permitted one.
+     */
+    long tryAcquire() {
+        long now = System.nanoTime();
+        long next = nextPermitAt.get();
+        if ((next == Long.MIN_VALUE || now - next >= 0) && nextPermitAt.compareAndSet(next, now + intervalNanos)) {
+            return suppressed.getAndSet(0);
+        }
+        suppressed.incrementAndGet();
+        return -1;
+    }
+}
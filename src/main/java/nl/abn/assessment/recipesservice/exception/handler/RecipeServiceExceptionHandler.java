@@ -1,21 +1,33 @@
 package nl.abn.assessment.recipesservice.exception.handler;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import nl.abn.assessment.recipesservice.exception.RateLimitExceededException;
+import nl.abn.assessment.recipesservice.exception.RecipeConflictException;
 import nl.abn.assessment.recipesservice.exception.RecipeNotFoundException;
 import nl.abn.assessment.recipesservice.model.ErrorResponse;
 import org.apache.coyote.BadRequestException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.METHOD_NOT_ALLOWED;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
 
 @RestControllerAdvice
 @Slf4j
@@ -24,11 +36,29 @@ public class RecipeServiceExceptionHandler {
     private static final String INTERNAL_SERVER_ERROR_MESSAGE = "An unexpected error occurred on the server.";
     private static final String INVALID_INPUT_MESSAGE = "Invalid input";
     private static final String RECIPE_NOT_FOUND_MESSAGE = "Recipe Not Found";
+    private static final String RECIPE_CONFLICT_MESSAGE = "Conflict";
+    private static final String RECIPE_CONFLICT_DETAILED_MESSAGE = "The recipe was updated concurrently; read it again and retry.";
+    private static final String RATE_LIMIT_EXCEEDED_MESSAGE = "Too Many Requests";
+    private static final long CLIENT_ERROR_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final ErrorResponse OPTIMISTIC_LOCKING_FAILURE_BODY =
+            new ImmutableErrorResponse(CONFLICT.value(), RECIPE_CONFLICT_MESSAGE, RECIPE_CONFLICT_DETAILED_MESSAGE);
+
+    private final MeterRegistry meterRegistry;
+
+    private final Counter recipeNotFoundCounter;
+
+    private final Map<String, Counter> errorCounters = new ConcurrentHashMap<>();
 
+    private final Map<String, LogRateLimiter> logRateLimiters = new ConcurrentHashMap<>();
+
+    public RecipeServiceExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.recipeNotFoundCounter = errorCounter(RecipeNotFoundException.class, NOT_FOUND.value());
+    }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleMethodArgumentNotValidException(MethodArgumentNotValidException ex) {
-        log.error("Method argument not valid: {}", ex.getMessage());
+        logClientError(ex, BAD_REQUEST.value(), "Method argument not valid");
 
         StringBuilder detailedMessage = new StringBuilder("Validation failed for: ");
         ex.getBindingResult().getFieldErrors().forEach(error ->
@@ -40,41 +70,70 @@ public class RecipeServiceExceptionHandler {
 
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<ErrorResponse> handleConstraintViolationException(ConstraintViolationException ex) {
-        log.error("Constraint violation: {}", ex.getMessage());
+        logClientError(ex, BAD_REQUEST.value(), "Constraint violation");
         return buildErrorResponse(BAD_REQUEST.value(), INVALID_INPUT_MESSAGE, ex.getMessage());
     }
 
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
     public ResponseEntity<ErrorResponse> handleMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException ex) {
-        log.error("Method argument type mismatch: {}", ex.getMessage());
+        logClientError(ex, BAD_REQUEST.value(), "Method argument type mismatch");
         return buildErrorResponse(BAD_REQUEST.value(), INVALID_INPUT_MESSAGE, ex.getMessage());
     }
 
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<ErrorResponse> handleHttpMessageNotReadableException(HttpMessageNotReadableException ex) {
-        log.error("HTTP message not readable: {}", ex.getMessage());
+        logClientError(ex, BAD_REQUEST.value(), "HTTP message not readable");
         return buildErrorResponse(BAD_REQUEST.value(), INVALID_INPUT_MESSAGE, ex.getLocalizedMessage());
     }
     @ExceptionHandler(HttpRequestMethodNotSupportedException.class)
     public ResponseEntity<ErrorResponse> handleHttpRequestMethodNotSupportedException(HttpRequestMethodNotSupportedException ex) {
-        log.error("HTTP Method Not Supported: {}", ex.getMessage());
+        logClientError(ex, METHOD_NOT_ALLOWED.value(), "HTTP Method Not Supported");
         return buildErrorResponse(METHOD_NOT_ALLOWED.value(), INVALID_INPUT_MESSAGE, ex.getLocalizedMessage());
     }
 
     @ExceptionHandler(BadRequestException.class)
     public ResponseEntity<ErrorResponse> handleBadRequestException(BadRequestException ex) {
-        log.error("Bad request: {}", ex.getMessage());
+        logClientError(ex, BAD_REQUEST.value(), "Bad request");
         return buildErrorResponse(BAD_REQUEST.value(), INVALID_INPUT_MESSAGE, ex.getLocalizedMessage());
     }
 
     @ExceptionHandler(RecipeNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleRecipeNotFoundException(RecipeNotFoundException ex) {
-        log.error("Recipe Not Found: {}", ex.getMessage());
-        return buildErrorResponse(NOT_FOUND.value(), RECIPE_NOT_FOUND_MESSAGE, ex.getLocalizedMessage());
+        recipeNotFoundCounter.increment();
+        long suppressed = logRateLimiter(RecipeNotFoundException.class).tryAcquire();
+        if (suppressed >= 0) {
+            log.warn("Recipe Not Found: {} ({} similar suppressed)", ex.getMessage(), suppressed);
+        }
+        return buildErrorResponse(NOT_FOUND.value(), RECIPE_NOT_FOUND_MESSAGE, ex.getMessage());
+    }
+
+    @ExceptionHandler(RecipeConflictException.class)
+    public ResponseEntity<ErrorResponse> handleRecipeConflictException(RecipeConflictException ex) {
+        logClientError(ex, CONFLICT.value(), "Recipe conflict");
+        return buildErrorResponse(CONFLICT.value(), RECIPE_CONFLICT_MESSAGE, ex.getMessage());
+    }
+
+    /**
+     * A concurrent update committed between reading the recipe and writing it back.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        logClientError(ex, CONFLICT.value(), "Optimistic locking failure");
+        return ResponseEntity.status(CONFLICT).body(OPTIMISTIC_LOCKING_FAILURE_BODY);
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleRateLimitExceededException(RateLimitExceededException ex) {
+        logClientError(ex, TOO_MANY_REQUESTS.value(), "Rate limit exceeded");
+        ResponseEntity<ErrorResponse> response = buildErrorResponse(TOO_MANY_REQUESTS.value(), RATE_LIMIT_EXCEEDED_MESSAGE, ex.getMessage());
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response.getBody());
     }
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleException(Exception ex) {
+        errorCounter(ex.getClass(), 500).increment();
         log.error("Internal server error: {}", ex.getMessage());
         return buildErrorResponse(500, INTERNAL_SERVER_ERROR_MESSAGE, ex.getMessage());
     }
@@ -87,5 +146,23 @@ public class RecipeServiceExceptionHandler {
         return ResponseEntity.status(status).body(errorResponse);
     }
 
+    private void logClientError(Exception ex, int status, String description) {
+        errorCounter(ex.getClass(), status).increment();
+        long suppressed = logRateLimiter(ex.getClass()).tryAcquire();
+        if (suppressed >= 0) {
+            log.warn("{}: {} ({} similar suppressed)", description, ex.getMessage(), suppressed);
+        }
+    }
+
+    private Counter errorCounter(Class<?> type, int status) {
+        return errorCounters.computeIfAbsent(type.getName() + ":" + status, key -> Counter.builder("recipes.errors")
+                .description("Error responses by exception type")
+                .tag("type", type.getSimpleName())
+                .tag("status", String.valueOf(status))
+                .register(meterRegistry));
+    }
 
+    private LogRateLimiter logRateLimiter(Class<?> type) {
+        return logRateLimiters.computeIfAbsent(type.getName(), name -> new LogRateLimiter(CLIENT_ERROR_LOG_INTERVAL_NANOS));
+    }
 }
@@ -0,0 +1,111 @@
+package nl.abn.assessment.recipesservice.importer;
+
+import nl.abn.assessment.recipesservice.model.RecipeDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parses CSV with a header row naming the columns {@code name, vegetarian, servings, ingredients, instructions} in
+ * any order. Fields may be double-quoted, with {@code ""} for a literal quote; ingredients are separated by {@code |}.
+ * Records must fit on one line.
+ */
+class CsvRecipeParser implements RecipeLineParser {
+
+    private static final List<String> COLUMNS = List.of("name", "vegetarian", "servings", "ingredients", "instructions");
+
+    private int[] columnIndexes;
+
+    @Override
+    public RecipeDto parse(String line) {
+        List<String> fields = split(line);
+        if (columnIndexes == null) {
+            columnIndexes = header(fields);
+            return null;
+        }
+        RecipeDto recipe = new RecipeDto();
+        recipe.setName(field(fields, 0));
+        recipe.setVegetarian(parseBoolean(field(fields, 1)));
+        recipe.setServings(parseInt(field(fields, 2)));
+        String ingredients = field(fields, 3);
+        recipe.setIngredients(ingredients == null ? null : Arrays.stream(ingredients.split("\\|")).map(String::trim).toList());
+        recipe.setInstructions(field(fields, 4));
+        return recipe;
+    }
+
+    private static int[] header(List<String> fields) {
+        List<String> names = fields.stream().map(field -> field.trim().toLowerCase(Locale.ROOT)).toList();
+        int[] indexes = new int[COLUMNS.size()];
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            indexes[i] = names.indexOf(COLUMNS.get(i));
+            if (indexes[i] < 0) {
+                throw new IllegalArgumentException("CSV header is missing column '" + COLUMNS.get(i) + "'");
+            }
+        }
+        return indexes;
+    }
+
+    private String field(List<String> fields, int column) {
+        int index = columnIndexes[column];
+        if (index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Boolean parseBoolean(String value) {
+        if (value == null) {
+            return null;
+        }
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true", "yes", "1" -> true;
+            case "false", "no", "0" -> false;
+            default -> throw new IllegalArgumentException("vegetarian is not a boolean: " + value);
+        };
+    }
+
+    private static Integer parseInt(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("servings is not a number: " + value);
+        }
+    }
+
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
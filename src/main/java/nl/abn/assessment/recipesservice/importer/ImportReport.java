@@ -0,0 +1,14 @@
+package nl.abn.assessment.recipesservice.importer;
+
+import java.util.List;
+
+/**
+ * Outcome of an import. {@code errors} holds the first rejected lines only (see
+ * {@code recipes.importer.max-reported-errors}); {@code failure} is set when the import stopped early.
+ */
+public record ImportReport(long lines, long imported, long rejected, List<LineError> errors, boolean errorsTruncated,
+                           long durationMillis, double recordsPerSecond, String failure) {
+
+    public record LineError(long line, String message) {
+    }
+}
@@ -0,0 +1,21 @@
+package nl.abn.assessment.recipesservice.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import nl.abn.assessment.recipesservice.model.RecipeDto;
+
+import java.io.IOException;
+
+class NdjsonRecipeParser implements RecipeLineParser {
+
+    private final ObjectReader reader;
+
+    NdjsonRecipeParser(ObjectMapper objectMapper) {
+        this.reader = objectMapper.readerFor(RecipeDto.class);
+    }
+
+    @Override
+    public RecipeDto parse(String line) throws IOException {
+        return reader.readValue(line);
+    }
+}
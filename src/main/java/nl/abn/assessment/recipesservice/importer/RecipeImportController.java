@@ -0,0 +1,33 @@
+package nl.abn.assessment.recipesservice.importer;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@code POST /recipes/import}: streams an NDJSON or CSV request body into {@link RecipeImporter} without buffering
+ * it. Kept out of the OpenAPI contract because the generated interface cannot express a raw streamed body.
+ */
+@RestController
+@RequiredArgsConstructor
+public class RecipeImportController {
+
+    private final RecipeImporter recipeImporter;
+
+    @PostMapping(path = "/recipes/import", consumes = {"application/x-ndjson", "text/csv"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ImportReport> importRecipes(HttpServletRequest request) throws IOException {
+        RecipeImportFormat format = RecipeImportFormat.fromContentType(request.getContentType());
+        Charset charset = request.getCharacterEncoding() != null ? Charset.forName(request.getCharacterEncoding()) : StandardCharsets.UTF_8;
+        ImportReport report = recipeImporter.importRecipes(new InputStreamReader(request.getInputStream(), charset), format);
+        return ResponseEntity.status(report.failure() == null ? HttpStatus.OK : HttpStatus.INTERNAL_SERVER_ERROR).body(report);
+    }
+}
@@ -0,0 +1,54 @@
+package nl.abn.assessment.recipesservice.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.abn.assessment.recipesservice.exception.BadRequestException;
+
+import java.util.Locale;
+
+/**
+ * Supported import file formats: one JSON {@code RecipeDto} per line, or CSV with a header row.
+ */
+public enum RecipeImportFormat {
+
+    NDJSON("application/x-ndjson", ".ndjson"),
+    CSV("text/csv", ".csv");
+
+    private final String mediaType;
+
+    private final String extension;
+
+    RecipeImportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    RecipeLineParser newParser(ObjectMapper objectMapper) {
+        return this == NDJSON ? new NdjsonRecipeParser(objectMapper) : new CsvRecipeParser();
+    }
+
+    public static RecipeImportFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            String lower = contentType.toLowerCase(Locale.ROOT);
+            for (RecipeImportFormat format : values()) {
+                if (lower.startsWith(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        throw new BadRequestException("Unsupported import content type: " + contentType);
+    }
+
+    public static RecipeImportFormat fromFileName(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        for (RecipeImportFormat format : values()) {
+            if (lower.endsWith(format.extension) || lower.endsWith(".jsonl") && format == NDJSON) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Cannot tell the import format of " + fileName + ", expected .ndjson, .jsonl or .csv");
+    }
+}
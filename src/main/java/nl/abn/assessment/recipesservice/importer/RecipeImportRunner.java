@@ -0,0 +1,40 @@
+package nl.abn.assessment.recipesservice.importer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Imports {@code recipes.importer.file} on startup, e.g.
+ * {@code java -jar recipes-service.jar --recipes.importer.file=feed.ndjson}.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "recipes.importer", name = "file")
+public class RecipeImportRunner implements ApplicationRunner {
+
+    private final RecipeImporter recipeImporter;
+
+    private final RecipesServiceProperties properties;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        Path file = Path.of(properties.getImporter().getFile());
+        log.info("Importing recipes from {}", file.toAbsolutePath());
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            ImportReport report = recipeImporter.importRecipes(reader, RecipeImportFormat.fromFileName(file.getFileName().toString()));
+            report.errors().forEach(error -> log.warn("{}:{}: {}", file.getFileName(), error.line(), error.message()));
+        }
+    }
+}
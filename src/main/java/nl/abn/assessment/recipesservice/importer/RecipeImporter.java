@@ -0,0 +1,214 @@
+package nl.abn.assessment.recipesservice.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import nl.abn.assessment.recipesservice.common.RecipeMapper;
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import nl.abn.assessment.recipesservice.model.Recipe;
+import nl.abn.assessment.recipesservice.model.RecipeDto;
+import nl.abn.assessment.recipesservice.service.RecipeService;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Imports recipes from an NDJSON or CSV stream. The calling thread reads and validates line by line and hands
+ * batches to a writer thread through a bounded queue; when the database falls behind the reader blocks, so memory
+ * stays at a few batches however large the input is. Every batch is persisted in its own transaction.
+ */
+@Service
+@Slf4j
+public class RecipeImporter {
+
+    private static final List<Recipe> END_OF_INPUT = List.of();
+
+    private final RecipeService recipeService;
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final RecipesServiceProperties.Importer properties;
+
+    public RecipeImporter(RecipeService recipeService, ObjectMapper objectMapper, Validator validator,
+                          RecipesServiceProperties properties) {
+        this.recipeService = recipeService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.properties = properties.getImporter();
+    }
+
+    public ImportReport importRecipes(Reader input, RecipeImportFormat format) throws IOException {
+        long start = System.nanoTime();
+        BufferedReader reader = input instanceof BufferedReader bufferedReader ? bufferedReader : new BufferedReader(input, 64 * 1024);
+        RecipeLineParser parser = format.newParser(objectMapper);
+        BlockingQueue<List<Recipe>> queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        AtomicLong imported = new AtomicLong();
+        AtomicReference<RuntimeException> writerFailure = new AtomicReference<>();
+        Thread writer = Thread.ofVirtual().name("recipe-import-writer").start(() -> {
+            try {
+                for (List<Recipe> batch = queue.take(); batch != END_OF_INPUT; batch = queue.take()) {
+                    imported.addAndGet(recipeService.addRecipes(batch));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                writerFailure.set(e);
+            }
+        });
+
+        List<ImportReport.LineError> errors = new ArrayList<>();
+        long lines = 0;
+        long rejected = 0;
+        String failure = null;
+        List<Recipe> batch = new ArrayList<>(properties.getBatchSize());
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                String error = null;
+                try {
+                    RecipeDto recipe = parser.parse(line);
+                    if (recipe == null) {
+                        continue;
+                    }
+                    error = violations(recipe);
+                    if (error == null) {
+                        Recipe entity = RecipeMapper.INSTANCE.toEntity(recipe);
+                        entity.setId(null);
+                        batch.add(entity);
+                    }
+                } catch (JsonProcessingException e) {
+                    error = e.getOriginalMessage();
+                } catch (IllegalArgumentException e) {
+                    error = e.getMessage();
+                }
+                if (error != null) {
+                    rejected++;
+                    if (errors.size() < properties.getMaxReportedErrors()) {
+                        errors.add(new ImportReport.LineError(lines, error));
+                    }
+                }
+                if (batch.size() == properties.getBatchSize()) {
+                    enqueue(queue, batch, writer);
+                    batch = new ArrayList<>(properties.getBatchSize());
+                }
+                if (lines % properties.getProgressInterval() == 0) {
+                    log.info("Import progress: {} lines read, {} imported, {} rejected, {} recipes/s",
+                            lines, imported.get(), rejected, String.format("%.0f", perSecond(imported.get(), start)));
+                }
+            }
+            finish(queue, batch, writer);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = "Import interrupted";
+        } catch (WriterStoppedException e) {
+            // reported below
+        } catch (IOException | RuntimeException e) {
+            // E.g. the client aborted the upload: keep what was read up to here.
+            failure = "Import stopped by a read error after " + lines + " lines: " + e.getMessage();
+            try {
+                finish(queue, batch, writer);
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            } catch (WriterStoppedException stopped) {
+                // reported below
+            }
+        } finally {
+            stop(writer);
+        }
+        if (writerFailure.get() != null) {
+            failure = "Import stopped after a failed batch: " + writerFailure.get().getMessage();
+        }
+
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        ImportReport report = new ImportReport(lines, imported.get(), rejected, List.copyOf(errors), rejected > errors.size(),
+                durationMillis, perSecond(imported.get(), start), failure);
+        log.info("Import finished: {} lines, {} imported, {} rejected in {} ms{}", report.lines(), report.imported(),
+                report.rejected(), report.durationMillis(), failure == null ? "" : " (" + failure + ")");
+        return report;
+    }
+
+    private String violations(RecipeDto recipe) {
+        Set<ConstraintViolation<RecipeDto>> violations = validator.validate(recipe);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Hands the last batch and the end of input to the writer and waits for it to write them.
+     */
+    private static void finish(BlockingQueue<List<Recipe>> queue, List<Recipe> batch, Thread writer) throws InterruptedException {
+        if (!batch.isEmpty()) {
+            enqueue(queue, batch, writer);
+        }
+        enqueue(queue, END_OF_INPUT, writer);
+        writer.join();
+    }
+
+    /**
+     * Makes sure the writer does not outlive the import, whichever way it ended; a batch already being written is
+     * completed first.
+     */
+    private static void stop(Thread writer) {
+        if (!writer.isAlive()) {
+            return;
+        }
+        writer.interrupt();
+        boolean interrupted = Thread.interrupted();
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Blocks while the writer is behind, giving up when the writer has died.
+     */
+    private static void enqueue(BlockingQueue<List<Recipe>> queue, List<Recipe> batch, Thread writer) throws InterruptedException {
+        do {
+            if (!writer.isAlive()) {
+                throw new WriterStoppedException();
+            }
+        } while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS));
+    }
+
+    private static double perSecond(long count, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return seconds > 0 ? count / seconds : 0;
+    }
+
+    private static class WriterStoppedException extends RuntimeException {
+        WriterStoppedException() {
+            super(null, null, false, false);
+        }
+    }
+}
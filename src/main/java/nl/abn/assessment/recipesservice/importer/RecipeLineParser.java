@@ -0,0 +1,14 @@
+package nl.abn.assessment.recipesservice.importer;
+
+import nl.abn.assessment.recipesservice.model.RecipeDto;
+
+import java.io.IOException;
+
+/**
+ * Turns one line of an import file into a recipe. Returns {@code null} for lines that carry no recipe, such as a
+ * CSV header.
+ */
+interface RecipeLineParser {
+
+    RecipeDto parse(String line) throws IOException;
+}
@@ -0,0 +1,13 @@
+package nl.abn.assessment.recipesservice.invalidation;
+
+/**
+ * Carries {@link RecipeInvalidation}s between service instances. Implementations deliver every message, including the
+ * ones a node sent itself, to all {@link InvalidationListener} beans of every node.
+ */
+public interface InvalidationBus {
+
+    /**
+     * Announces a committed write to the other nodes.
+     */
+    void publish(RecipeInvalidation invalidation);
+}
@@ -0,0 +1,10 @@
+package nl.abn.assessment.recipesservice.invalidation;
+
+/**
+ * A local cache that drops or refreshes its copy of a recipe when the {@link InvalidationBus} reports a change.
+ * Messages may arrive late, twice or out of order, so implementations compare versions (see {@link RecipeVersions}).
+ */
+public interface InvalidationListener {
+
+    void onInvalidation(RecipeInvalidation invalidation);
+}
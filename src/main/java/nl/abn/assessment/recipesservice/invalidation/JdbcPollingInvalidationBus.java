@@ -0,0 +1,106 @@
+package nl.abn.assessment.recipesservice.invalidation;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import nl.abn.assessment.recipesservice.model.RecipeChange;
+import nl.abn.assessment.recipesservice.repository.RecipeChangeRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * {@link InvalidationBus} on top of the {@code recipe_change} table every instance already shares: the row written in
+ * the same transaction as the recipe is the message, so {@link #publish} has nothing left to send, and each node
+ * polls for rows past the last sequence number it has seen.
+ * <p>
+ * Sequence numbers are handed out when a row is inserted, not when its transaction commits, so a row can become
+ * visible after rows with higher numbers. Numbers skipped over by a poll are kept as open gaps and looked up again on
+ * every poll until their row shows up or {@code recipes.invalidation.gap-timeout} passes; a rolled-back transaction
+ * leaves a gap that never fills.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "recipes.invalidation", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class JdbcPollingInvalidationBus implements InvalidationBus {
+
+    private final RecipeChangeRepository recipeChangeRepository;
+
+    private final ObjectProvider<InvalidationListener> listeners;
+
+    private final int batchSize;
+
+    private final Duration gapTimeout;
+
+    private final Map<Long, Long> openGaps = new TreeMap<>();
+
+    private volatile long lastSeq;
+
+    public JdbcPollingInvalidationBus(RecipeChangeRepository recipeChangeRepository,
+                                      ObjectProvider<InvalidationListener> listeners,
+                                      RecipesServiceProperties properties) {
+        this.recipeChangeRepository = recipeChangeRepository;
+        this.listeners = listeners;
+        this.batchSize = properties.getInvalidation().getBatchSize();
+        this.gapTimeout = properties.getInvalidation().getGapTimeout();
+        this.lastSeq = recipeChangeRepository.findLatestSeq();
+    }
+
+    @Override
+    public void publish(RecipeInvalidation invalidation) {
+        // Already durable in recipe_change; other nodes pick it up on their next poll.
+    }
+
+    @Scheduled(fixedDelayString = "${recipes.invalidation.poll-interval:PT1S}")
+    public synchronized void poll() {
+        if (!openGaps.isEmpty()) {
+            for (RecipeChange change : recipeChangeRepository.findBySeqInOrderBySeqAsc(Set.copyOf(openGaps.keySet()))) {
+                openGaps.remove(change.getSeq());
+                deliver(change);
+            }
+        }
+        long now = System.nanoTime();
+        openGaps.values().removeIf(openedAt -> now - openedAt >= gapTimeout.toNanos());
+
+        List<RecipeChange> changes;
+        do {
+            changes = recipeChangeRepository.findBySeqGreaterThanOrderBySeqAsc(lastSeq, Limit.of(batchSize));
+            for (RecipeChange change : changes) {
+                for (long missing = lastSeq + 1; missing < change.getSeq(); missing++) {
+                    openGaps.put(missing, now);
+                }
+                deliver(change);
+                lastSeq = change.getSeq();
+            }
+        } while (changes.size() == batchSize);
+    }
+
+    long getLastSeq() {
+        return lastSeq;
+    }
+
+    synchronized Set<Long> getOpenGaps() {
+        return Set.copyOf(openGaps.keySet());
+    }
+
+    private void deliver(RecipeChange change) {
+        RecipeInvalidation invalidation = RecipeInvalidation.of(change);
+        listeners.orderedStream().forEach(listener -> deliver(listener, invalidation));
+    }
+
+    private static void deliver(InvalidationListener listener, RecipeInvalidation invalidation) {
+        try {
+            listener.onInvalidation(invalidation);
+        } catch (RuntimeException e) {
+            log.warn("Invalidation of recipe {} at version {} failed in {}: {}", invalidation.recipeId(),
+                    invalidation.version(), listener.getClass().getSimpleName(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package nl.abn.assessment.recipesservice.invalidation;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import nl.abn.assessment.recipesservice.repository.RecipeChangeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Prunes {@code recipe_change} rows older than {@code recipes.invalidation.retention}. The newest row always stays, so
+ * a node starting on an otherwise empty log still begins polling at the current sequence number. A poller or a catalog
+ * snapshot that is further behind than the retention can miss pruned changes; the catalog loader detects that and
+ * loads from the table instead.
+ */
+@Component
+@Slf4j
+public class RecipeChangeRetention {
+
+    private final RecipeChangeRepository recipeChangeRepository;
+
+    private final Duration retention;
+
+    private final Clock clock;
+
+    @Autowired
+    public RecipeChangeRetention(RecipeChangeRepository recipeChangeRepository, RecipesServiceProperties properties) {
+        this(recipeChangeRepository, properties, Clock.systemUTC());
+    }
+
+    RecipeChangeRetention(RecipeChangeRepository recipeChangeRepository, RecipesServiceProperties properties, Clock clock) {
+        this.recipeChangeRepository = recipeChangeRepository;
+        this.retention = properties.getInvalidation().getRetention();
+        this.clock = clock;
+    }
+
+    @Scheduled(fixedDelayString = "${recipes.invalidation.retention-interval:PT1H}")
+    public void prune() {
+        int pruned = recipeChangeRepository.deleteOlderThan(clock.instant().minus(retention), recipeChangeRepository.findLatestSeq());
+        if (pruned > 0) {
+            log.info("Pruned {} recipe changes older than {}", pruned, retention);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package nl.abn.assessment.recipesservice.invalidation;
+
+import nl.abn.assessment.recipesservice.model.RecipeChange;
+
+/**
+ * Tells a node that recipe {@code recipeId} changed. {@code version} is the change-log sequence number of the write,
+ * which only grows, so a node can tell a late message from a current one.
+ */
+public record RecipeInvalidation(Long recipeId, long version, boolean deleted) {
+
+    public static RecipeInvalidation of(RecipeChange change) {
+        return new RecipeInvalidation(change.getRecipeId(), change.getSeq(),
+                change.getOperation() == RecipeChange.Operation.DELETED);
+    }
+}
@@ -0,0 +1,24 @@
+package nl.abn.assessment.recipesservice.invalidation;
+
+import lombok.RequiredArgsConstructor;
+import nl.abn.assessment.recipesservice.event.RecipeChangedEvent;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Hands every committed {@link RecipeChangedEvent} to the {@link InvalidationBus}, if one is configured.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecipeInvalidationPublisher {
+
+    private final ObjectProvider<InvalidationBus> invalidationBus;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (event.change().getSeq() != null) {
+            invalidationBus.ifAvailable(bus -> bus.publish(RecipeInvalidation.of(event.change())));
+        }
+    }
+}
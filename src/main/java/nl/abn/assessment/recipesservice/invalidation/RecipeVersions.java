@@ -0,0 +1,32 @@
+package nl.abn.assessment.recipesservice.invalidation;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The newest change-log version a cache has applied per recipe id.
+ */
+public class RecipeVersions {
+
+    private final ConcurrentHashMap<Long, Long> versions = new ConcurrentHashMap<>();
+
+    public long current(Long id) {
+        return versions.getOrDefault(id, 0L);
+    }
+
+    /**
+     * Records {@code version} for {@code id} if it is newer than what was applied before.
+     *
+     * @return {@code false} when the version is old news and should be ignored
+     */
+    public boolean advance(Long id, long version) {
+        boolean[] advanced = new boolean[1];
+        versions.compute(id, (key, current) -> {
+            if (current != null && current >= version) {
+                return current;
+            }
+            advanced[0] = true;
+            return version;
+        });
+        return advanced[0];
+    }
+}
@@ -0,0 +1,51 @@
+package nl.abn.assessment.recipesservice.logging;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logs a sample of handled requests at INFO, with the sample rate configured per endpoint under
+ * {@code recipes.request-log}. Unsampled requests cost one random draw and nothing else.
+ */
+@Slf4j(topic = "recipes.request")
+@Component
+@ConditionalOnProperty(prefix = "recipes.request-log", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SampledRequestLogInterceptor implements HandlerInterceptor {
+
+    static final String START_ATTRIBUTE = SampledRequestLogInterceptor.class.getName() + ".start";
+
+    private final RecipesServiceProperties.RequestLog properties;
+
+    public SampledRequestLogInterceptor(RecipesServiceProperties properties) {
+        this.properties = properties.getRequestLog();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod && log.isInfoEnabled()) {
+            double rate = properties.sampleRate(handlerMethod.getMethod().getName());
+            if (rate > 0 && (rate >= 1 || ThreadLocalRandom.current().nextDouble() < rate)) {
+                request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(START_ATTRIBUTE) instanceof Long start) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            log.info("{} {} -> {} in {} ms", request.getMethod(), pattern != null ? pattern : request.getRequestURI(),
+                    response.getStatus(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package nl.abn.assessment.recipesservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Append-only log of recipe writes. The sequence number acts as the watermark
+ * for anything that needs to catch up with changes made after a point in time.
+ */
+@Entity
+@Table(name = "recipe_change")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecipeChange {
+
+    public enum Operation {
+        CREATED, UPDATED, DELETED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+
+    @Column(name = "recipe_id", nullable = false)
+    private Long recipeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Operation operation;
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+
+    public RecipeChange(Long recipeId, Operation operation) {
+        this(null, recipeId, operation, Instant.now());
+    }
+}
@@ -0,0 +1,8 @@
+package nl.abn.assessment.recipesservice.model;
+
+/**
+ * Read-only projection of a {@link Recipe} row. Queries selecting it bypass the persistence context,
+ * so no managed entity or dirty-checking snapshot is created for rows that are only mapped to a DTO.
+ */
+public record RecipeRow(Long id, String name, Boolean vegetarian, Integer servings, String ingredients, String instructions, Long version) {
+}
@@ -0,0 +1,32 @@
+package nl.abn.assessment.recipesservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The filterable columns of one recipe in the search projection. {@code version} is the recipe version it was
+ * projected from.
+ */
+@Entity
+@Table(name = "recipe_search")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecipeSearchDocument {
+
+    @Id
+    @Column(name = "recipe_id")
+    private Long recipeId;
+
+    private boolean vegetarian;
+
+    private int servings;
+
+    @Column(nullable = false)
+    private Long version;
+}
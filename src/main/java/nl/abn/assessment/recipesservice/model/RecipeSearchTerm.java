@@ -0,0 +1,50 @@
+package nl.abn.assessment.recipesservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * One analyzed term of a recipe's ingredients or instructions in the search projection.
+ */
+@Entity
+@Table(name = "recipe_search_term")
+@IdClass(RecipeSearchTerm.Key.class)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecipeSearchTerm {
+
+    public enum Field {
+        INGREDIENT, INSTRUCTIONS
+    }
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    private Field field;
+
+    @Id
+    private String term;
+
+    @Id
+    @Column(name = "recipe_id")
+    private Long recipeId;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private Field field;
+        private String term;
+        private Long recipeId;
+    }
+}
@@ -0,0 +1,28 @@
+package nl.abn.assessment.recipesservice.profiling;
+
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.text.ParseException;
+
+/**
+ * In-process JFR streaming is opt-in: {@link RecipeOperationEvent}s are always emitted, but cost next to nothing until a
+ * recording is running, either this one or one started externally with {@code jcmd JFR.start}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "recipes.jfr", name = "enabled", havingValue = "true")
+public class JfrConfiguration {
+
+    @Bean
+    public JfrMonitor jfrMonitor(RecipesServiceProperties properties) throws IOException, ParseException {
+        return new JfrMonitor(properties);
+    }
+
+    @Bean
+    public JfrEndpoint jfrEndpoint(JfrMonitor jfrMonitor) {
+        return new JfrEndpoint(jfrMonitor);
+    }
+}
@@ -0,0 +1,33 @@
+package nl.abn.assessment.recipesservice.profiling;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * {@code /actuator/jfr}: a summary of recent pinning, lock contention, GC, allocation and slow-operation events, and a
+ * POST that dumps the retained recording to a file.
+ */
+@Endpoint(id = "jfr")
+@RequiredArgsConstructor
+public class JfrEndpoint {
+
+    private final JfrMonitor jfrMonitor;
+
+    @ReadOperation
+    public Map<String, Object> summary() {
+        return jfrMonitor.summary();
+    }
+
+    @WriteOperation
+    public Map<String, Object> dump() throws IOException {
+        Path file = jfrMonitor.dump();
+        return Map.of("file", file.toAbsolutePath().toString(), "bytes", Files.size(file));
+    }
+}
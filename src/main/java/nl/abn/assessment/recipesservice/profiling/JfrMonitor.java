@@ -0,0 +1,176 @@
+package nl.abn.assessment.recipesservice.profiling;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs an in-process JFR recording with the JDK's low-overhead {@code default} settings and streams the events that
+ * explain latency spikes into small in-memory summaries: virtual thread pinning, contended monitors (e.g. in the
+ * connection pool), garbage collection pauses, allocation hot spots and slow {@link RecipeOperationEvent}s. The
+ * recording keeps {@code recipes.jfr.max-age} of history, which {@link #dump} writes to a file on demand.
+ */
+@Slf4j
+public class JfrMonitor {
+
+    static final String VIRTUAL_THREAD_PINNED = "jdk.VirtualThreadPinned";
+    static final String MONITOR_ENTER = "jdk.JavaMonitorEnter";
+    static final String GARBAGE_COLLECTION = "jdk.GarbageCollection";
+    static final String ALLOCATION_SAMPLE = "jdk.ObjectAllocationSample";
+
+    public record Occurrence(Instant time, long durationMillis, String what, String where) {
+    }
+
+    private final RecipesServiceProperties.Jfr properties;
+
+    private final RecordingStream stream;
+
+    private final Deque<Occurrence> pinned = new ArrayDeque<>();
+
+    private final Deque<Occurrence> monitorWaits = new ArrayDeque<>();
+
+    private final Deque<Occurrence> slowOperations = new ArrayDeque<>();
+
+    private final Map<String, LongAdder> allocationsBySite = new ConcurrentHashMap<>();
+
+    private final AtomicLong gcCount = new AtomicLong();
+
+    private final AtomicLong gcPauseNanos = new AtomicLong();
+
+    private final AtomicLong longestGcPauseNanos = new AtomicLong();
+
+    private volatile Instant windowStart = Instant.now();
+
+    public JfrMonitor(RecipesServiceProperties properties) throws IOException, ParseException {
+        this.properties = properties.getJfr();
+        this.stream = new RecordingStream(Configuration.getConfiguration("default"));
+        stream.setMaxAge(this.properties.getMaxAge());
+        stream.enable(RecipeOperationEvent.NAME).withThreshold(this.properties.getSlowOperationThreshold());
+        stream.onEvent(VIRTUAL_THREAD_PINNED, event -> remember(pinned, occurrence(event, "pinned")));
+        stream.onEvent(MONITOR_ENTER, event -> remember(monitorWaits, occurrence(event, event.getClass("monitorClass").getName())));
+        stream.onEvent(RecipeOperationEvent.NAME, event -> remember(slowOperations,
+                occurrence(event, event.getString("operation") + " " + event.getString("parameters") + " rows=" + event.getInt("rows"))));
+        stream.onEvent(GARBAGE_COLLECTION, this::onGarbageCollection);
+        stream.onEvent(ALLOCATION_SAMPLE, event -> allocationsBySite
+                .computeIfAbsent(event.getClass("objectClass").getName() + " at " + topFrame(event.getStackTrace()), key -> new LongAdder())
+                .add(event.getLong("weight")));
+    }
+
+    @PostConstruct
+    public void start() {
+        stream.startAsync();
+        log.info("JFR streaming started, keeping {} of recording history", properties.getMaxAge());
+    }
+
+    @PreDestroy
+    public void close() {
+        stream.close();
+    }
+
+    /**
+     * Starts a new summary window. The recent-event lists are bounded already; the counters and allocation sites
+     * would otherwise describe the whole uptime.
+     */
+    @Scheduled(fixedDelayString = "${recipes.jfr.window:PT5M}", initialDelayString = "${recipes.jfr.window:PT5M}")
+    public void resetWindow() {
+        allocationsBySite.clear();
+        gcCount.set(0);
+        gcPauseNanos.set(0);
+        longestGcPauseNanos.set(0);
+        windowStart = Instant.now();
+    }
+
+    public Map<String, Object> summary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("windowStart", windowStart);
+        summary.put("pinnedVirtualThreads", snapshot(pinned));
+        summary.put("contendedMonitors", snapshot(monitorWaits));
+        summary.put("slowOperations", snapshot(slowOperations));
+        summary.put("garbageCollection", Map.of(
+                "count", gcCount.get(),
+                "totalPauseMillis", gcPauseNanos.get() / 1_000_000,
+                "longestPauseMillis", longestGcPauseNanos.get() / 1_000_000));
+        summary.put("allocationHotSpots", allocationHotSpots());
+        return summary;
+    }
+
+    /**
+     * Writes the retained recording to a new file in {@code recipes.jfr.dump-directory}, for opening in JDK Mission
+     * Control.
+     */
+    public Path dump() throws IOException {
+        Path directory = Path.of(properties.getDumpDirectory());
+        Files.createDirectories(directory);
+        Path file = directory.resolve("recipes-" + System.currentTimeMillis() + ".jfr");
+        stream.dump(file);
+        return file;
+    }
+
+    private void onGarbageCollection(RecordedEvent event) {
+        long pause = event.getDuration("sumOfPauses").toNanos();
+        gcCount.incrementAndGet();
+        gcPauseNanos.addAndGet(pause);
+        longestGcPauseNanos.accumulateAndGet(pause, Math::max);
+    }
+
+    private List<Map<String, Object>> allocationHotSpots() {
+        return allocationsBySite.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().sum()))
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(properties.getMaxEvents())
+                .map(entry -> Map.<String, Object>of("site", entry.getKey(), "bytes", entry.getValue()))
+                .toList();
+    }
+
+    private void remember(Deque<Occurrence> occurrences, Occurrence occurrence) {
+        synchronized (occurrences) {
+            if (occurrences.size() == properties.getMaxEvents()) {
+                occurrences.removeFirst();
+            }
+            occurrences.addLast(occurrence);
+        }
+    }
+
+    private static List<Occurrence> snapshot(Deque<Occurrence> occurrences) {
+        synchronized (occurrences) {
+            List<Occurrence> newestFirst = new ArrayList<>(occurrences.size());
+            occurrences.descendingIterator().forEachRemaining(newestFirst::add);
+            return newestFirst;
+        }
+    }
+
+    private static Occurrence occurrence(RecordedEvent event, String what) {
+        return new Occurrence(event.getStartTime(), event.getDuration().toMillis(), what, topFrame(event.getStackTrace()));
+    }
+
+    private static String topFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown";
+        }
+        RecordedFrame frame = stackTrace.getFrames().get(0);
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
@@ -0,0 +1,47 @@
+package nl.abn.assessment.recipesservice.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event around a {@code RecipeService} operation. Without an active recording {@link #finish} is a couple of field
+ * writes; the parameters are only turned into a string when the event is actually recorded.
+ */
+@Name(RecipeOperationEvent.NAME)
+@Label("Recipe Operation")
+@Description("A RecipeService call with its parameters and the number of recipes it returned or wrote")
+@Category("Recipes Service")
+@StackTrace(false)
+public class RecipeOperationEvent extends Event {
+
+    public static final String NAME = "nl.abn.assessment.recipesservice.RecipeOperation";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Parameters")
+    String parameters;
+
+    @Label("Rows")
+    int rows;
+
+    public static RecipeOperationEvent start(String operation) {
+        RecipeOperationEvent event = new RecipeOperationEvent();
+        event.operation = operation;
+        event.begin();
+        return event;
+    }
+
+    public void finish(Object parameters, int rows) {
+        end();
+        if (shouldCommit()) {
+            this.parameters = String.valueOf(parameters);
+            this.rows = rows;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package nl.abn.assessment.recipesservice.projection;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import nl.abn.assessment.recipesservice.catalog.SearchPlan;
+import nl.abn.assessment.recipesservice.model.Recipe;
+import nl.abn.assessment.recipesservice.model.RecipeRow;
+import nl.abn.assessment.recipesservice.model.RecipeSearchDocument;
+import nl.abn.assessment.recipesservice.model.RecipeSearchTerm;
+import nl.abn.assessment.recipesservice.service.RecipeSearchCriteria;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The searchable part of every recipe in query-ready form: vegetarian flag and servings in {@code recipe_search}, and
+ * the trigrams (every three consecutive characters) of the lowercased ingredients and instructions in
+ * {@code recipe_search_term}, one row per trigram. Searches compare indexed columns for equality instead of applying
+ * {@code LOWER(...) LIKE} to every recipe.
+ * <p>
+ * Text filters keep the substring semantics of the other search paths: a recipe can only contain a filter if it has
+ * all of the filter's trigrams, so the trigram lookup narrows the candidates and {@code LIKE} confirms them. Filters
+ * shorter than three characters have no trigrams and are matched with {@code LIKE} alone.
+ * <p>
+ * Recipes inserted without going through the service (SQL scripts, other tools) are projected by {@link #catchUp()},
+ * which {@link RecipeSearchProjectionLoader} runs on a schedule: ids only grow, so the highest recipe id checked so far
+ * is a watermark, and recipes above it that have no projection yet are projected. Until then searches do not find them.
+ */
+@Component
+public class RecipeSearchProjection {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile boolean loaded;
+
+    private volatile long watermark;
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Switches searches to the projection once every recipe up to id {@code watermark} is projected.
+     */
+    public void markLoaded(long watermark) {
+        this.watermark = watermark;
+        loaded = true;
+    }
+
+    /**
+     * Replaces the projection of {@code recipe}; must run in the transaction that wrote the recipe.
+     */
+    public void put(Recipe recipe) {
+        removeTerms(recipe.getId());
+        entityManager.merge(new RecipeSearchDocument(recipe.getId(), recipe.isVegetarian(), recipe.getServings(), recipe.getVersion()));
+        for (RecipeSearchTerm term : terms(recipe)) {
+            entityManager.persist(term);
+        }
+    }
+
+    public void remove(Long recipeId) {
+        removeTerms(recipeId);
+        entityManager.createQuery("delete from RecipeSearchDocument d where d.recipeId = :recipeId")
+                .setParameter("recipeId", recipeId)
+                .executeUpdate();
+    }
+
+    /**
+     * The recipe version each projected recipe was built from, by recipe id.
+     */
+    public Map<Long, Long> versions() {
+        Map<Long, Long> versions = new HashMap<>();
+        entityManager.createQuery("select d.recipeId, d.version from RecipeSearchDocument d", Object[].class)
+                .getResultList()
+                .forEach(row -> versions.put((Long) row[0], (Long) row[1]));
+        return versions;
+    }
+
+    public List<RecipeRow> search(RecipeSearchCriteria criteria, List<SearchPlan.Step> steps) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<RecipeRow> cq = cb.createQuery(RecipeRow.class);
+        Root<RecipeSearchDocument> document = cq.from(RecipeSearchDocument.class);
+        Root<Recipe> recipe = cq.from(Recipe.class);
+        cq.select(cb.construct(RecipeRow.class, recipe.get("id"), recipe.get("name"), recipe.get("vegetarian"),
+                recipe.get("servings"), recipe.get("ingredients"), recipe.get("instructions"), recipe.get("version")));
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(recipe.get("id"), document.get("recipeId")));
+
+        for (SearchPlan.Step step : steps) {
+            switch (step) {
+                case VEGETARIAN -> predicates.add(cb.equal(document.get("vegetarian"), criteria.vegetarian()));
+                case SERVINGS -> predicates.add(cb.equal(document.get("servings"), criteria.servings()));
+                case INSTRUCTIONS -> predicates.add(contains(cq, cb, document, recipe, RecipeSearchTerm.Field.INSTRUCTIONS,
+                        "instructions", criteria.instructions()));
+                case INCLUDE_INGREDIENTS -> predicates.add(cb.or(criteria.includeIngredients().stream()
+                        .map(ingredient -> contains(cq, cb, document, recipe, RecipeSearchTerm.Field.INGREDIENT, "ingredients", ingredient))
+                        .toArray(Predicate[]::new)));
+                case EXCLUDE_INGREDIENTS -> predicates.add(cb.and(criteria.excludeIngredients().stream()
+                        .map(ingredient -> cb.notLike(cb.lower(recipe.get("ingredients")), "%" + ingredient + "%"))
+                        .toArray(Predicate[]::new)));
+            }
+        }
+        cq.where(predicates.toArray(new Predicate[0]));
+        TypedQuery<RecipeRow> query = entityManager.createQuery(cq);
+        query.setHint(HibernateHints.HINT_READ_ONLY, true);
+        return query.getResultList();
+    }
+
+    /**
+     * The projected terms of {@code recipe}: the trigrams of its ingredients and of its instructions.
+     */
+    static Set<RecipeSearchTerm> terms(Recipe recipe) {
+        Set<RecipeSearchTerm> terms = new LinkedHashSet<>();
+        trigrams(recipe.getIngredients())
+                .forEach(trigram -> terms.add(new RecipeSearchTerm(RecipeSearchTerm.Field.INGREDIENT, trigram, recipe.getId())));
+        trigrams(recipe.getInstructions())
+                .forEach(trigram -> terms.add(new RecipeSearchTerm(RecipeSearchTerm.Field.INSTRUCTIONS, trigram, recipe.getId())));
+        return terms;
+    }
+
+    /**
+     * Every three consecutive characters of {@code text} lowercased, once each; none for text shorter than three.
+     */
+    static Set<String> trigrams(String text) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        if (text != null) {
+            String lower = text.toLowerCase(Locale.ROOT);
+            for (int i = 0; i + 3 <= lower.length(); i++) {
+                trigrams.add(lower.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    /**
+     * Projects the recipes above the watermark that have no projection yet; must run in a transaction. Each recipe is
+     * reloaded under its row lock, so a write to it waits and then projects its own version over this one.
+     */
+    public void catchUp() {
+        Long latest = entityManager.createQuery("select max(r.id) from Recipe r", Long.class).getSingleResult();
+        if (latest == null || latest <= watermark) {
+            return;
+        }
+        entityManager.createQuery("select r from Recipe r where r.id > :from and r.id <= :to"
+                        + " and not exists (select d from RecipeSearchDocument d where d.recipeId = r.id)", Recipe.class)
+                .setParameter("from", watermark)
+                .setParameter("to", latest)
+                .getResultList()
+                .forEach(recipe -> {
+                    entityManager.refresh(recipe, LockModeType.PESSIMISTIC_WRITE);
+                    put(recipe);
+                });
+        watermark = latest;
+    }
+
+    /**
+     * Whether the recipe's {@code column} contains {@code value}: it has all of the value's trigrams, confirmed by
+     * {@code LIKE} since the trigrams may occur in another order.
+     */
+    private static Predicate contains(CriteriaQuery<?> cq, CriteriaBuilder cb, Root<RecipeSearchDocument> document,
+                                      Root<Recipe> recipe, RecipeSearchTerm.Field field, String column, String value) {
+        Predicate like = cb.like(cb.lower(recipe.get(column)), "%" + value + "%");
+        Set<String> trigrams = trigrams(value);
+        if (trigrams.isEmpty()) {
+            return like;
+        }
+        Subquery<Long> matched = cq.subquery(Long.class);
+        Root<RecipeSearchTerm> term = matched.from(RecipeSearchTerm.class);
+        matched.select(cb.count(term)).where(
+                cb.equal(term.get("recipeId"), document.get("recipeId")),
+                cb.equal(term.get("field"), field),
+                term.get("term").in(trigrams));
+        return cb.and(cb.equal(matched, (long) trigrams.size()), like);
+    }
+
+    private void removeTerms(Long recipeId) {
+        entityManager.createQuery("delete from RecipeSearchTerm t where t.recipeId = :recipeId")
+                .setParameter("recipeId", recipeId)
+                .executeUpdate();
+    }
+}
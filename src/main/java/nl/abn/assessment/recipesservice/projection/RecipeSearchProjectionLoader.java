@@ -0,0 +1,111 @@
+package nl.abn.assessment.recipesservice.projection;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nl.abn.assessment.recipesservice.event.RecipeChangedEvent;
+import nl.abn.assessment.recipesservice.model.Recipe;
+import nl.abn.assessment.recipesservice.repository.RecipeRepository;
+import nl.abn.assessment.recipesservice.sharding.ShardedRecipeStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Brings the {@link RecipeSearchProjection} in line with the recipe table on startup and keeps it there by projecting
+ * every write in the transaction that makes it, and every {@code recipes.search-projection.catch-up-interval} the
+ * recipes inserted without going through the service. Sharded recipes are searched on the shards, so with sharding the
+ * projection stays unused.
+ * <p>
+ * Nothing here takes a lock in the JVM. A write and its projection commit together while the write holds the recipe's
+ * row lock, and the startup pass locks each batch of recipe rows before projecting them, so the database orders the
+ * two per recipe and the later one sees the other's result.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "recipes.search-projection", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RecipeSearchProjectionLoader implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final RecipeSearchProjection projection;
+
+    private final RecipeRepository recipeRepository;
+
+    private final ObjectProvider<ShardedRecipeStore> shardedRecipeStore;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (shardedRecipeStore.getIfAvailable() != null) {
+            return;
+        }
+        long start = System.nanoTime();
+        // Read before the recipes: a recipe created in between is then projected by its write or by the pass below.
+        Map<Long, Long> projected = transactionTemplate.execute(status -> projection.versions());
+        long lastId = 0;
+        long[] counts = new long[2];
+        List<Recipe> batch;
+        do {
+            long after = lastId;
+            batch = transactionTemplate.execute(status -> {
+                List<Recipe> recipes = recipeRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(BATCH_SIZE));
+                for (Recipe recipe : recipes) {
+                    if (!Objects.equals(projected.remove(recipe.getId()), recipe.getVersion())) {
+                        projection.put(recipe);
+                        counts[0]++;
+                    }
+                }
+                return recipes;
+            });
+            if (!batch.isEmpty()) {
+                lastId = batch.getLast().getId();
+            }
+        } while (batch.size() == BATCH_SIZE);
+        // Ids are never reused, so a projection without a recipe belongs to a deleted one.
+        transactionTemplate.executeWithoutResult(status -> projected.keySet().stream()
+                .filter(id -> !recipeRepository.existsById(id))
+                .forEach(id -> {
+                    projection.remove(id);
+                    counts[1]++;
+                }));
+        projection.markLoaded(lastId);
+        log.info("Recipe search projection refreshed {} and removed {} recipes in {} ms",
+                counts[0], counts[1], (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Projects recipes inserted directly into the database, off the request path.
+     */
+    @Scheduled(fixedDelayString = "${recipes.search-projection.catch-up-interval:PT10S}")
+    public void catchUp() {
+        if (!projection.isLoaded() || shardedRecipeStore.getIfAvailable() != null) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> projection.catchUp());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (shardedRecipeStore.getIfAvailable() != null) {
+            return;
+        }
+        if (event.isDelete()) {
+            projection.remove(event.recipeId());
+        } else {
+            projection.put(event.recipe());
+        }
+    }
+}
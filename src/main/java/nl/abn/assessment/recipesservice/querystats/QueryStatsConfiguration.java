@@ -0,0 +1,20 @@
+package nl.abn.assessment.recipesservice.querystats;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the {@link SqlCapturingStatementInspector}. Session-level Hibernate statistics are switched on with
+ * {@code spring.jpa.properties.hibernate.generate_statistics} and published by Spring Boot as {@code hibernate.*}
+ * meters.
+ */
+@Configuration
+public class QueryStatsConfiguration {
+
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlCapturingStatementInspector());
+    }
+}
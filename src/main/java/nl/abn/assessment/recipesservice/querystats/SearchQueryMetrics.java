@@ -0,0 +1,69 @@
+package nl.abn.assessment.recipesservice.querystats;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import nl.abn.assessment.recipesservice.service.RecipeSearchCriteria;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Times recipe searches per query shape ({@link RecipeSearchCriteria#shape()}) and access path, and records how many
+ * rows each returned, so slow filter combinations stand out in {@code recipes.search.query}. A sample of the searches
+ * slower than {@code recipes.query-stats.slow-query-threshold} is logged with the SQL and its bind values.
+ */
+@Slf4j(topic = "recipes.slow-query")
+@Component
+public class SearchQueryMetrics {
+
+    private final RecipesServiceProperties.QueryStats properties;
+
+    private final MeterRegistry meterRegistry;
+
+    public SearchQueryMetrics(MeterRegistry meterRegistry, RecipesServiceProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties.getQueryStats();
+    }
+
+    public <T> T record(RecipeSearchCriteria criteria, String source, Supplier<T> query, ToIntFunction<T> rows) {
+        String[] sql = SqlCapturingStatementInspector.startCapture();
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = query.get();
+        } finally {
+            SqlCapturingStatementInspector.stopCapture();
+        }
+        long elapsed = System.nanoTime() - start;
+        String shape = criteria.shape();
+        int rowCount = rows.applyAsInt(result);
+        Timer.builder("recipes.search.query")
+                .description("Recipe search time by query shape and access path")
+                .tag("shape", shape)
+                .tag("source", source)
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("recipes.search.query.rows")
+                .description("Recipes returned by query shape and access path")
+                .tag("shape", shape)
+                .tag("source", source)
+                .register(meterRegistry)
+                .record(rowCount);
+        if (elapsed >= properties.getSlowQueryThreshold().toNanos() && sampled()) {
+            log.warn("Slow {} search [{}] took {} ms for {} rows; sql: {}; bind: {}", source, shape,
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), rowCount, sql[0] != null ? sql[0] : "n/a", criteria);
+        }
+        return result;
+    }
+
+    private boolean sampled() {
+        double rate = properties.getSlowQuerySampleRate();
+        return rate >= 1 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+}
@@ -0,0 +1,32 @@
+package nl.abn.assessment.recipesservice.querystats;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Remembers the last SQL statement Hibernate prepared on the current thread while a {@link SearchQueryMetrics}
+ * measurement is running, so a slow search can be logged with the SQL it actually ran. Outside a measurement it only
+ * reads a thread-local.
+ */
+public class SqlCapturingStatementInspector implements StatementInspector {
+
+    private static final ThreadLocal<String[]> CAPTURE = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        String[] capture = CAPTURE.get();
+        if (capture != null) {
+            capture[0] = sql;
+        }
+        return sql;
+    }
+
+    static String[] startCapture() {
+        String[] capture = new String[1];
+        CAPTURE.set(capture);
+        return capture;
+    }
+
+    static void stopCapture() {
+        CAPTURE.remove();
+    }
+}
@@ -0,0 +1,111 @@
+package nl.abn.assessment.recipesservice.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import nl.abn.assessment.recipesservice.exception.RateLimitExceededException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.security.Principal;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Gives every authenticated principal its own {@link TokenBucket} and charges each request the cost configured for its
+ * operation under {@code recipes.rate-limit.costs}, so a batch client running searches or imports cannot starve
+ * interactive users. Responses carry the {@code RateLimit-Limit}, {@code RateLimit-Remaining} and
+ * {@code RateLimit-Reset} headers; refused requests end in a 429 with {@code Retry-After}.
+ * <p>
+ * Off by default: with the single configured basic-auth user every client shares one bucket, which would turn the
+ * per-principal limit into a global one.
+ */
+@Component
+@ConditionalOnProperty(prefix = "recipes.rate-limit", name = "enabled", havingValue = "true")
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    static final String LIMIT_HEADER = "RateLimit-Limit";
+    static final String REMAINING_HEADER = "RateLimit-Remaining";
+    static final String RESET_HEADER = "RateLimit-Reset";
+
+    private static final String ANONYMOUS = "anonymous";
+
+    private final RecipesServiceProperties.RateLimit properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final LongSupplier clock;
+
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RateLimitInterceptor(RecipesServiceProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    RateLimitInterceptor(RecipesServiceProperties properties, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.properties = properties.getRateLimit();
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        Principal principal = request.getUserPrincipal();
+        String name = principal != null ? principal.getName() : ANONYMOUS;
+        String operation = handlerMethod.getMethod().getName();
+        long now = clock.getAsLong();
+        TokenBucket bucket = buckets.computeIfAbsent(name, key -> newBucket(key, now));
+        TokenBucket.Result result = bucket.tryConsume(properties.cost(operation), now);
+
+        response.setHeader(LIMIT_HEADER, String.valueOf(bucket.capacity()));
+        response.setHeader(REMAINING_HEADER, String.valueOf(result.remaining()));
+        response.setHeader(RESET_HEADER, String.valueOf(toSeconds(result.resetNanos())));
+        counter(operation, result.allowed()).increment();
+        if (!result.allowed()) {
+            throw new RateLimitExceededException("Rate limit exceeded for " + operation, toSeconds(result.retryAfterNanos()));
+        }
+        return true;
+    }
+
+    /**
+     * Drops the buckets of principals that have been idle long enough to refill, so the map only holds active clients.
+     */
+    @Scheduled(fixedDelayString = "${recipes.rate-limit.eviction-interval:PT1M}")
+    public void evictIdleBuckets() {
+        long now = clock.getAsLong();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    private TokenBucket newBucket(String principal, long now) {
+        RecipesServiceProperties.Limit limit = properties.limit(principal);
+        return new TokenBucket(limit.getCapacity(), limit.getRefillPerSecond(), now);
+    }
+
+    // Not tagged by principal: the number of principals is unbounded.
+    private Counter counter(String operation, boolean allowed) {
+        return Counter.builder("recipes.ratelimit.requests")
+                .description("Rate-limited requests by operation and outcome")
+                .tag("operation", operation)
+                .tag("outcome", allowed ? "allowed" : "throttled")
+                .register(meterRegistry);
+    }
+
+    private static long toSeconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+}
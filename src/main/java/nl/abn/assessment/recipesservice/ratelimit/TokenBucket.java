@@ -0,0 +1,64 @@
+package nl.abn.assessment.recipesservice.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket. The whole state is one "theoretical arrival time" in nanoseconds (the generic cell rate
+ * algorithm): the bucket is full when it lies in the past and every token taken pushes it one refill interval into the
+ * future. Taking tokens is a single compare-and-set, so concurrent requests of one principal never block each other.
+ */
+public final class TokenBucket {
+
+    public record Result(boolean allowed, long remaining, long resetNanos, long retryAfterNanos) {
+    }
+
+    private final long capacity;
+
+    private final long nanosPerToken;
+
+    private final long burstNanos;
+
+    private final AtomicLong arrivalTime;
+
+    public TokenBucket(long capacity, double refillPerSecond, long now) {
+        this.capacity = capacity;
+        this.nanosPerToken = Math.max(1, (long) (1_000_000_000L / refillPerSecond));
+        this.burstNanos = capacity * nanosPerToken;
+        this.arrivalTime = new AtomicLong(now);
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    /**
+     * Takes {@code cost} tokens if that many are available. A cost above the capacity is charged as the capacity, so
+     * an expensive request waits for a full bucket instead of being refused forever.
+     */
+    public Result tryConsume(long cost, long now) {
+        long increment = Math.min(cost, capacity) * nanosPerToken;
+        while (true) {
+            long current = arrivalTime.get();
+            long next = Math.max(current, now) + increment;
+            long debt = next - now;
+            if (debt > burstNanos) {
+                long backlog = Math.max(current, now) - now;
+                return new Result(false, remaining(backlog), backlog, debt - burstNanos);
+            }
+            if (arrivalTime.compareAndSet(current, next)) {
+                return new Result(true, remaining(debt), debt, 0);
+            }
+        }
+    }
+
+    /**
+     * A bucket that has refilled completely is indistinguishable from a new one and can be dropped.
+     */
+    public boolean isFull(long now) {
+        return arrivalTime.get() <= now;
+    }
+
+    private long remaining(long debt) {
+        return (burstNanos - debt) / nanosPerToken;
+    }
+}
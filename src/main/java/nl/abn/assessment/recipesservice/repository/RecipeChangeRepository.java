@@ -0,0 +1,36 @@
+package nl.abn.assessment.recipesservice.repository;
+
+import nl.abn.assessment.recipesservice.model.RecipeChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+
+@Repository
+public interface RecipeChangeRepository extends JpaRepository<RecipeChange, Long> {
+
+    List<RecipeChange> findBySeqGreaterThanOrderBySeqAsc(Long seq);
+
+    List<RecipeChange> findBySeqGreaterThanOrderBySeqAsc(Long seq, Limit limit);
+
+    List<RecipeChange> findBySeqInOrderBySeqAsc(Collection<Long> seqs);
+
+    @Query("select coalesce(max(c.seq), 0) from RecipeChange c")
+    long findLatestSeq();
+
+    @Query("select coalesce(min(c.seq), 0) from RecipeChange c")
+    long findOldestSeq();
+
+    @Transactional
+    @Modifying
+    @Query("delete from RecipeChange c where c.changedAt < :cutoff and c.seq < :latestSeq")
+    int deleteOlderThan(@Param("cutoff") Instant cutoff, @Param("latestSeq") long latestSeq);
+}
@@ -1,12 +1,33 @@
 package nl.abn.assessment.recipesservice.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import nl.abn.assessment.recipesservice.model.Recipe;
+import nl.abn.assessment.recipesservice.model.RecipeRow;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 
 @Repository
 public interface RecipeRepository extends JpaRepository<Recipe, Long> {
 
+    @Query("select new nl.abn.assessment.recipesservice.model.RecipeRow(r.id, r.name, r.vegetarian, r.servings, r.ingredients, r.instructions, r.version) from Recipe r where r.id = :id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Optional<RecipeRow> findRowById(@Param("id") Long id);
+
+    /**
+     * The next {@code limit} recipes after {@code id}, locked until the transaction ends so that writes to them wait.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Recipe> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,235 @@
+package nl.abn.assessment.recipesservice.search;
+
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Inverted index over recipe names and instructions, ranked with BM25. Name terms count
+ * {@code recipes.text-search.name-boost} times, so a match in the name outweighs one in the instructions.
+ * It stays empty until {@link RecipeTextIndexLoader} loads it.
+ */
+@Component
+public class RecipeTextIndex {
+
+    public record Hit(long id, double score) {
+    }
+
+    private static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::score).reversed()
+            .thenComparingLong(Hit::id);
+
+    /**
+     * Documents containing a term, as parallel arrays of document slot and weighted term frequency.
+     */
+    private static final class Postings {
+        private int[] slots = new int[4];
+        private float[] frequencies = new float[4];
+        private int size;
+
+        void add(int slot, float frequency) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            slots[size] = slot;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        void remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    size--;
+                    slots[i] = slots[size];
+                    frequencies[i] = frequencies[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    private final RecipesServiceProperties.TextSearch properties;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    private final Map<Long, Integer> slotById = new HashMap<>();
+
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+
+    private long[] ids = new long[1024];
+
+    private float[] lengths = new float[1024];
+
+    private String[][] termsBySlot = new String[1024][];
+
+    private int slotCount;
+
+    private double totalLength;
+
+    private volatile boolean loaded;
+
+    public RecipeTextIndex(RecipesServiceProperties properties) {
+        this.properties = properties.getTextSearch();
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void markLoaded() {
+        loaded = true;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(long id, String name, String instructions) {
+        Map<String, Float> frequencies = new LinkedHashMap<>();
+        float nameBoost = (float) properties.getNameBoost();
+        List<String> nameTerms = TextAnalyzer.analyze(name);
+        List<String> instructionTerms = TextAnalyzer.analyze(instructions);
+        nameTerms.forEach(term -> frequencies.merge(term, nameBoost, Float::sum));
+        instructionTerms.forEach(term -> frequencies.merge(term, 1f, Float::sum));
+        float length = nameTerms.size() * nameBoost + instructionTerms.size();
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            int slot = allocateSlot();
+            ids[slot] = id;
+            lengths[slot] = length;
+            termsBySlot[slot] = frequencies.keySet().toArray(String[]::new);
+            frequencies.forEach((term, frequency) -> postings.computeIfAbsent(term, key -> new Postings()).add(slot, frequency));
+            slotById.put(id, slot);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the {@code limit} best matches for {@code query} among the recipes accepted by {@code filter}, best first.
+     */
+    public List<Hit> search(String query, int limit, LongPredicate filter) {
+        List<String> terms = TextAnalyzer.analyze(query).stream().distinct().toList();
+        if (terms.isEmpty() || limit < 1) {
+            return List.of();
+        }
+        double k1 = properties.getK1();
+        double b = properties.getB();
+        lock.readLock().lock();
+        try {
+            int documents = slotById.size();
+            if (documents == 0) {
+                return List.of();
+            }
+            double averageLength = totalLength / documents;
+            Map<Integer, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                Postings termPostings = postings.get(term);
+                if (termPostings == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documents - termPostings.size + 0.5) / (termPostings.size + 0.5));
+                for (int i = 0; i < termPostings.size; i++) {
+                    int slot = termPostings.slots[i];
+                    double frequency = termPostings.frequencies[i];
+                    double norm = k1 * (1 - b + b * lengths[slot] / averageLength);
+                    scores.merge(slot, idf * frequency * (k1 + 1) / (frequency + norm), Double::sum);
+                }
+            }
+
+            // Min-heap of the best `limit` hits seen so far: its head is the one to evict.
+            PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+            scores.forEach((slot, score) -> {
+                long id = ids[slot];
+                if (filter.test(id)) {
+                    best.offer(new Hit(id, score));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            });
+            List<Hit> hits = new ArrayList<>(best);
+            hits.sort(RANKING);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            slotById.clear();
+            freeSlots.clear();
+            Arrays.fill(termsBySlot, 0, slotCount, null);
+            slotCount = 0;
+            totalLength = 0;
+            loaded = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(long id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        for (String term : termsBySlot[slot]) {
+            Postings termPostings = postings.get(term);
+            termPostings.remove(slot);
+            if (termPostings.size == 0) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= lengths[slot];
+        termsBySlot[slot] = null;
+        freeSlots.push(slot);
+    }
+
+    private int allocateSlot() {
+        if (!freeSlots.isEmpty()) {
+            return freeSlots.pop();
+        }
+        if (slotCount == ids.length) {
+            int capacity = slotCount * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            termsBySlot = Arrays.copyOf(termsBySlot, capacity);
+        }
+        return slotCount++;
+    }
+}
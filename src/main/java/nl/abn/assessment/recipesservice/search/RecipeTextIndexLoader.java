@@ -0,0 +1,98 @@
+package nl.abn.assessment.recipesservice.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nl.abn.assessment.recipesservice.event.RecipeChangedEvent;
+import nl.abn.assessment.recipesservice.invalidation.InvalidationListener;
+import nl.abn.assessment.recipesservice.invalidation.RecipeInvalidation;
+import nl.abn.assessment.recipesservice.invalidation.RecipeVersions;
+import nl.abn.assessment.recipesservice.model.Recipe;
+import nl.abn.assessment.recipesservice.repository.RecipeRepository;
+import nl.abn.assessment.recipesservice.service.RecipeSearchCriteria;
+import nl.abn.assessment.recipesservice.sharding.ShardedRecipeStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Builds the {@link RecipeTextIndex} on startup and keeps it current with local writes and with writes made by other
+ * instances. Writes seen before the initial load finishes win over the loaded copy. Rows are read outside the monitor;
+ * only the version check and the index update run under it.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "recipes.text-search", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RecipeTextIndexLoader implements ApplicationRunner, InvalidationListener {
+
+    private final RecipeTextIndex index;
+
+    private final RecipeRepository recipeRepository;
+
+    private final ObjectProvider<ShardedRecipeStore> shardedRecipeStore;
+
+    private final RecipeVersions versions = new RecipeVersions();
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        for (Recipe recipe : loadAll()) {
+            synchronized (this) {
+                if (versions.current(recipe.getId()) == 0) {
+                    index.put(recipe.getId(), recipe.getName(), recipe.getInstructions());
+                }
+            }
+        }
+        index.markLoaded();
+        log.info("Recipe text index built for {} recipes in {} ms", index.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onRecipeChanged(RecipeChangedEvent event) {
+        Long seq = event.change().getSeq();
+        if (seq != null && !versions.advance(event.recipeId(), seq)) {
+            return;
+        }
+        if (event.isDelete()) {
+            index.remove(event.recipeId());
+        } else {
+            Recipe recipe = event.recipe();
+            index.put(recipe.getId(), recipe.getName(), recipe.getInstructions());
+        }
+    }
+
+    @Override
+    public void onInvalidation(RecipeInvalidation invalidation) {
+        Long id = invalidation.recipeId();
+        if (versions.current(id) >= invalidation.version()) {
+            return;
+        }
+        Optional<Recipe> recipe = findById(id);
+        synchronized (this) {
+            if (!versions.advance(id, invalidation.version())) {
+                return;
+            }
+            recipe.ifPresentOrElse(
+                    found -> index.put(found.getId(), found.getName(), found.getInstructions()),
+                    () -> index.remove(id));
+        }
+    }
+
+    private List<Recipe> loadAll() {
+        ShardedRecipeStore shards = shardedRecipeStore.getIfAvailable();
+        return shards != null
+                ? shards.search(RecipeSearchCriteria.of(null, null, null, null, null))
+                : recipeRepository.findAll();
+    }
+
+    private Optional<Recipe> findById(Long id) {
+        ShardedRecipeStore shards = shardedRecipeStore.getIfAvailable();
+        return shards != null ? shards.findById(id) : recipeRepository.findById(id);
+    }
+}
@@ -0,0 +1,81 @@
+package nl.abn.assessment.recipesservice.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits text into lowercase letter/digit tokens, drops English stop words and reduces each token with a light
+ * suffix-stripping stemmer, so that "baked", "baking" and "bakes" all index as {@code bak}.
+ */
+public final class TextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into", "is", "it", "of", "on",
+            "or", "the", "then", "to", "until", "with");
+
+    private TextAnalyzer() {
+    }
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = lower.substring(start, i);
+                if (token.length() > 1 && !STOP_WORDS.contains(token)) {
+                    terms.add(stem(token));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    static String stem(String token) {
+        String stem = token;
+        if (stem.endsWith("ies") && stem.length() > 4) {
+            stem = stem.substring(0, stem.length() - 3) + "y";
+        } else if (stem.endsWith("sses")) {
+            stem = stem.substring(0, stem.length() - 2);
+        } else if (stem.endsWith("s") && !stem.endsWith("ss") && !stem.endsWith("us") && stem.length() > 3) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        if (stem.endsWith("ing") && hasVowel(stem, stem.length() - 3) && stem.length() > 5) {
+            stem = undouble(stem.substring(0, stem.length() - 3));
+        } else if (stem.endsWith("ed") && hasVowel(stem, stem.length() - 2) && stem.length() > 4) {
+            stem = undouble(stem.substring(0, stem.length() - 2));
+        }
+        if (stem.endsWith("e") && stem.length() > 3) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        return stem;
+    }
+
+    private static boolean hasVowel(String token, int end) {
+        for (int i = 0; i < end; i++) {
+            if ("aeiouy".indexOf(token.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // "chopp" -> "chop", but keep "boil", "grill", "fizz" and "toss"
+    private static String undouble(String stem) {
+        int length = stem.length();
+        if (length > 2 && stem.charAt(length - 1) == stem.charAt(length - 2) && "lsz".indexOf(stem.charAt(length - 1)) < 0
+                && "aeiouy".indexOf(stem.charAt(length - 1)) < 0) {
+            return stem.substring(0, length - 1);
+        }
+        return stem;
+    }
+}
@@ -0,0 +1,79 @@
+package nl.abn.assessment.recipesservice.service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+
+/**
+ * The filters of a recipe search with blank values dropped and text lowercased, so that two
+ * searches for the same thing compare equal.
+ */
+public record RecipeSearchCriteria(Boolean vegetarian, Integer servings, String instructions,
+                                   List<String> includeIngredients, List<String> excludeIngredients) {
+
+    private static final int MAX_SHAPE_LIST_SIZE = 5;
+
+    public static RecipeSearchCriteria of(Boolean vegetarian, Integer servings, String instructions,
+                                          List<String> includeIngredients, List<String> excludeIngredients) {
+        return new RecipeSearchCriteria(vegetarian, servings,
+                instructions == null || instructions.isEmpty() ? null : instructions.toLowerCase(Locale.ROOT),
+                normalize(includeIngredients), normalize(excludeIngredients));
+    }
+
+    public boolean hasFilters() {
+        return vegetarian != null || servings != null || hasInstructions() || hasIncludeIngredients() || hasExcludeIngredients();
+    }
+
+    /**
+     * Which filters are set, e.g. {@code vegetarian+include(3)+exclude(1)}, without their values. Searches with the same
+     * shape run the same SQL. List sizes above {@value #MAX_SHAPE_LIST_SIZE} are reported as {@code n+} to keep the
+     * number of shapes bounded.
+     */
+    public String shape() {
+        StringJoiner shape = new StringJoiner("+");
+        if (vegetarian != null) {
+            shape.add("vegetarian");
+        }
+        if (servings != null) {
+            shape.add("servings");
+        }
+        if (hasInstructions()) {
+            shape.add("instructions");
+        }
+        if (hasIncludeIngredients()) {
+            shape.add("include(" + listSize(includeIngredients) + ")");
+        }
+        if (hasExcludeIngredients()) {
+            shape.add("exclude(" + listSize(excludeIngredients) + ")");
+        }
+        return shape.length() == 0 ? "all" : shape.toString();
+    }
+
+    public boolean hasInstructions() {
+        return instructions != null;
+    }
+
+    public boolean hasIncludeIngredients() {
+        return !includeIngredients.isEmpty();
+    }
+
+    public boolean hasExcludeIngredients() {
+        return !excludeIngredients.isEmpty();
+    }
+
+    private static String listSize(List<String> values) {
+        return values.size() > MAX_SHAPE_LIST_SIZE ? MAX_SHAPE_LIST_SIZE + "+" : String.valueOf(values.size());
+    }
+
+    private static List<String> normalize(List<String> ingredients) {
+        if (ingredients == null || ingredients.isEmpty()) {
+            return List.of();
+        }
+        return ingredients.stream()
+                .filter(ingredient -> ingredient != null && !ingredient.isEmpty())
+                .map(ingredient -> ingredient.toLowerCase(Locale.ROOT))
+                .distinct()
+                .sorted()
+                .toList();
+    }
+}
@@ -0,0 +1,13 @@
+package nl.abn.assessment.recipesservice.service;
+
+import nl.abn.assessment.recipesservice.catalog.SearchPlan;
+import nl.abn.assessment.recipesservice.model.RecipeDto;
+
+import java.util.List;
+
+public record RecipeSearchResult(List<RecipeDto> recipes, SearchPlan plan) {
+
+    public String explain() {
+        return plan.explain(recipes.size());
+    }
+}
@@ -9,89 +9,309 @@ import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import nl.abn.assessment.recipesservice.catalog.ColumnarRecipeStore;
+import nl.abn.assessment.recipesservice.catalog.RecipeCatalog;
+import nl.abn.assessment.recipesservice.catalog.SearchPlan;
 import nl.abn.assessment.recipesservice.common.RecipeMapper;
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import nl.abn.assessment.recipesservice.event.RecipeChangedEvent;
+import nl.abn.assessment.recipesservice.exception.RecipeConflictException;
 import nl.abn.assessment.recipesservice.exception.RecipeNotFoundException;
 import nl.abn.assessment.recipesservice.model.Recipe;
+import nl.abn.assessment.recipesservice.model.RecipeChange;
 import nl.abn.assessment.recipesservice.model.RecipeDto;
+import nl.abn.assessment.recipesservice.model.RecipeRow;
+import nl.abn.assessment.recipesservice.repository.RecipeChangeRepository;
+import nl.abn.assessment.recipesservice.profiling.RecipeOperationEvent;
+import nl.abn.assessment.recipesservice.projection.RecipeSearchProjection;
+import nl.abn.assessment.recipesservice.querystats.SearchQueryMetrics;
 import nl.abn.assessment.recipesservice.repository.RecipeRepository;
+import nl.abn.assessment.recipesservice.search.RecipeTextIndex;
+import nl.abn.assessment.recipesservice.sharding.ShardedRecipeStore;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 @Service
 @Slf4j
 @AllArgsConstructor
 public class RecipeService {
 
+    static final String GET_RECIPE_BY_ID = "getRecipeById";
+
+    static final String SEARCH_RECIPES = "searchRecipes";
+
     private final RecipeRepository recipeRepository;
 
+    private final RecipeChangeRepository recipeChangeRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final RecipeCatalog recipeCatalog;
+
+    private final ObjectProvider<ShardedRecipeStore> shardedRecipeStore;
+
+    private final SingleFlight singleFlight;
+
+    private final RecipeTextIndex recipeTextIndex;
+
+    private final RecipesServiceProperties properties;
+
+    private final SearchQueryMetrics searchQueryMetrics;
+
+    private final RecipeSearchProjection recipeSearchProjection;
+
+    private final PlatformTransactionManager transactionManager;
+
     @PersistenceContext
     private EntityManager entityManager;
 
+    @Transactional
     public RecipeDto addRecipe(RecipeDto recipeDto) {
-        log.info("Adding recipe");
-        Recipe recipe = RecipeMapper.INSTANCE.toEntity(recipeDto);
-        return RecipeMapper.INSTANCE.toDto(recipeRepository.save(recipe));
+        log.trace("Adding recipe: {}", recipeDto.getName());
+        RecipeOperationEvent event = RecipeOperationEvent.start("addRecipe");
+        ShardedRecipeStore shards = shardedRecipeStore.getIfAvailable();
+        Recipe recipe = shards != null
+                ? shards.insert(RecipeMapper.INSTANCE.toEntity(recipeDto))
+                : recipeRepository.save(RecipeMapper.INSTANCE.toEntity(recipeDto));
+        recordChange(recipe.getId(), RecipeChange.Operation.CREATED, recipe);
+        event.finish(recipe.getId(), 1);
+        return RecipeMapper.INSTANCE.toDto(recipe);
+    }
+
+    /**
+     * Stores a batch of already validated recipes in one transaction.
+     *
+     * @return the number of recipes stored
+     */
+    @Transactional
+    public int addRecipes(List<Recipe> recipes) {
+        RecipeOperationEvent event = RecipeOperationEvent.start("addRecipes");
+        ShardedRecipeStore shards = shardedRecipeStore.getIfAvailable();
+        List<Recipe> saved = shards != null
+                ? recipes.stream().map(shards::insert).toList()
+                : recipeRepository.saveAll(recipes);
+        List<RecipeChange> changes = recipeChangeRepository.saveAll(saved.stream()
+                .map(recipe -> new RecipeChange(recipe.getId(), RecipeChange.Operation.CREATED))
+                .toList());
+        for (int i = 0; i < saved.size(); i++) {
+            eventPublisher.publishEvent(new RecipeChangedEvent(changes.get(i), saved.get(i)));
+        }
+        event.finish(null, saved.size());
+        return saved.size();
     }
 
+    /**
+     * Concurrent reads of the same id share one lookup, which runs in a read-only transaction of its own; callers
+     * waiting on another's lookup only join an existing transaction, so they do not hold a connection.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public RecipeDto getRecipeById(Long id) {
-        log.info("Getting recipe by id: {}", id);
-        return recipeRepository.findById(id)
-                .map(RecipeMapper.INSTANCE::toDto)
-                .orElseThrow(() -> new RecipeNotFoundException("Recipe not found with id: " + id));
+        log.trace("Getting recipe by id: {}", id);
+        RecipeOperationEvent event = RecipeOperationEvent.start("getRecipeById");
+        ShardedRecipeStore shards = shardedRecipeStore.getIfAvailable();
+        Optional<RecipeDto> recipe = shards != null
+                ? singleFlight.execute(GET_RECIPE_BY_ID, id, () -> shards.findById(id)).map(RecipeMapper.INSTANCE::toDto)
+                : singleFlight.execute(GET_RECIPE_BY_ID, id, () -> readOnly(() -> recipeRepository.findRowById(id))).map(RecipeMapper.INSTANCE::toDto);
+        event.finish(id, recipe.isPresent() ? 1 : 0);
+        return recipe.orElseThrow(() -> new RecipeNotFoundException(id));
     }
 
+    /**
+     * Updates the recipe in place, so the write is checked against the version that was read: an update racing with
+     * another one fails with a conflict instead of overwriting it. A version in {@code recipeDto} must match the
+     * current one. With sharding the shard write commits on its own, outside this transaction.
+     */
+    @Transactional
     public RecipeDto updateRecipeById(Long id, RecipeDto recipeDto) {
-        log.info("Updating recipe by id: {}", id);
-        return recipeRepository.findById(id)
-                .map(existingRecipe -> {
-                    Recipe updatedRecipe = RecipeMapper.INSTANCE.toEntity(recipeDto);
-                    updatedRecipe.setId(existingRecipe.getId());
-                    return RecipeMapper.INSTANCE.toDto(recipeRepository.save(updatedRecipe));
-                })
-                .orElseThrow(() -> new RecipeNotFoundException("Recipe not found with id: " + id));
+        log.trace("Updating recipe by id: {}", id);
+        RecipeOperationEvent event = RecipeOperationEvent.start("updateRecipeById");
+        ShardedRecipeStore shards = shardedRecipeStore.getIfAvailable();
+        Recipe recipe = (shards != null ? shards.findById(id) : recipeRepository.findById(id))
+                .orElseThrow(() -> new RecipeNotFoundException(id));
+        if (recipeDto.getVersion() != null && !recipeDto.getVersion().equals(recipe.getVersion())) {
+            throw new RecipeConflictException(id, recipeDto.getVersion(), recipe.getVersion());
+        }
+        RecipeMapper.INSTANCE.updateEntity(recipeDto, recipe);
+        if (shards != null) {
+            if (!shards.update(recipe)) {
+                throw new RecipeConflictException(id);
+            }
+        } else {
+            // Flushing here bumps the version for the response and surfaces a lost race as a conflict.
+            recipe = recipeRepository.saveAndFlush(recipe);
+        }
+        recordChange(id, RecipeChange.Operation.UPDATED, recipe);
+        event.finish(id, 1);
+        return RecipeMapper.INSTANCE.toDto(recipe);
     }
 
+    /**
+     * With sharding the shard delete commits on its own, outside this transaction.
+     */
+    @Transactional
     public void deleteRecipeById(Long id) {
-        log.info("Deleting recipe by id: {}", id);
-        recipeRepository.deleteById(id);
+        log.trace("Deleting recipe by id: {}", id);
+        RecipeOperationEvent event = RecipeOperationEvent.start("deleteRecipeById");
+        ShardedRecipeStore shards = shardedRecipeStore.getIfAvailable();
+        if (shards != null) {
+            shards.delete(id);
+        } else {
+            recipeRepository.deleteById(id);
+        }
+        recordChange(id, RecipeChange.Operation.DELETED, null);
+        event.finish(id, 1);
+    }
+
+    private void recordChange(Long id, RecipeChange.Operation operation, Recipe recipe) {
+        RecipeChange change = recipeChangeRepository.save(new RecipeChange(id, operation));
+        eventPublisher.publishEvent(new RecipeChangedEvent(change, recipe));
     }
 
+    /**
+     * Concurrent searches with the same normalized criteria share one evaluation, run in a read-only transaction, and
+     * therefore one result list, which callers must not modify.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<RecipeDto> searchRecipes(Boolean vegetarian, Integer servings, String instructions, List<String> includeIngredients, List<String> excludeIngredients) {
-        CriteriaQuery<Recipe> cq = getRecipeCriteriaQuery(vegetarian, servings, instructions, includeIngredients, excludeIngredients);
-        TypedQuery<Recipe> query = entityManager.createQuery(cq);
-        return query.getResultList().stream().map(RecipeMapper.INSTANCE::toDto).collect(Collectors.toList());
+        RecipeOperationEvent event = RecipeOperationEvent.start("searchRecipes");
+        RecipeSearchCriteria criteria = RecipeSearchCriteria.of(vegetarian, servings, instructions, includeIngredients, excludeIngredients);
+        List<RecipeDto> recipes = search(criteria).recipes();
+        event.finish(criteria, recipes.size());
+        return recipes;
     }
 
-    private CriteriaQuery<Recipe> getRecipeCriteriaQuery(Boolean vegetarian, Integer servings, String instructions, List<String> includeIngredients, List<String> excludeIngredients) {
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Recipe> cq = cb.createQuery(Recipe.class);
-        Root<Recipe> recipe = cq.from(Recipe.class);
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public RecipeSearchResult explainSearch(Boolean vegetarian, Integer servings, String instructions, List<String> includeIngredients, List<String> excludeIngredients) {
+        RecipeOperationEvent event = RecipeOperationEvent.start("explainSearch");
+        RecipeSearchCriteria criteria = RecipeSearchCriteria.of(vegetarian, servings, instructions, includeIngredients, excludeIngredients);
+        RecipeSearchResult result = search(criteria);
+        if (log.isDebugEnabled()) {
+            log.debug("Search plan: {}", result.explain());
+        }
+        event.finish(criteria, result.recipes().size());
+        return result;
+    }
 
-        List<Predicate> predicates = new ArrayList<>();
+    /**
+     * Returns the recipes best matching the free-text {@code query}, best first, limited to
+     * {@code recipes.text-search.top-k}. The structured filters narrow the candidates before ranking. Until the text
+     * index is built the query falls back to an unranked substring match on the instructions.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<RecipeDto> rankedSearch(String query, Boolean vegetarian, Integer servings, String instructions, List<String> includeIngredients, List<String> excludeIngredients) {
+        RecipeOperationEvent event = RecipeOperationEvent.start("rankedSearch");
+        RecipeSearchCriteria criteria = RecipeSearchCriteria.of(vegetarian, servings, instructions, includeIngredients, excludeIngredients);
+        List<RecipeDto> recipes = rank(query, criteria);
+        event.finish(List.of(query, criteria), recipes.size());
+        return recipes;
+    }
 
-        if (vegetarian != null) {
-            predicates.add(cb.equal(recipe.get("vegetarian"), vegetarian));
+    private List<RecipeDto> rank(String query, RecipeSearchCriteria criteria) {
+        if (!recipeTextIndex.isLoaded()) {
+            return search(RecipeSearchCriteria.of(criteria.vegetarian(), criteria.servings(),
+                    criteria.hasInstructions() ? criteria.instructions() : query,
+                    criteria.includeIngredients(), criteria.excludeIngredients())).recipes();
         }
-        if (servings != null) {
-            predicates.add(cb.equal(recipe.get("servings"), servings));
+        int limit = properties.getTextSearch().getTopK();
+        if (criteria.hasFilters()) {
+            Map<Long, RecipeDto> candidates = new HashMap<>();
+            search(criteria).recipes().forEach(recipe -> candidates.put(recipe.getId(), recipe));
+            return recipeTextIndex.search(query, limit, candidates::containsKey).stream()
+                    .map(hit -> candidates.get(hit.id()))
+                    .toList();
         }
-        if (instructions != null && !instructions.isEmpty()) {
-            predicates.add(cb.like(cb.lower(recipe.get("instructions")), "%" + instructions.toLowerCase() + "%"));
+        List<Long> ids = recipeTextIndex.search(query, limit, id -> true).stream()
+                .map(RecipeTextIndex.Hit::id)
+                .toList();
+        Map<Long, RecipeDto> recipes = new HashMap<>();
+        findAllById(ids).forEach(recipe -> recipes.put(recipe.getId(), RecipeMapper.INSTANCE.toDto(recipe)));
+        return ids.stream().map(recipes::get).filter(Objects::nonNull).toList();
+    }
+
+    private List<Recipe> findAllById(List<Long> ids) {
+        ShardedRecipeStore shards = shardedRecipeStore.getIfAvailable();
+        if (shards != null) {
+            return ids.stream().map(shards::findById).flatMap(Optional::stream).toList();
         }
-        if (includeIngredients != null && !includeIngredients.isEmpty()) {
-            List<Predicate> includePredicates = includeIngredients.stream()
-                    .map(ingredient -> cb.like(cb.lower(recipe.get("ingredients")), "%" + ingredient.toLowerCase() + "%"))
-                    .toList();
-            predicates.add(cb.or(includePredicates.toArray(new Predicate[0])));
+        return recipeRepository.findAllById(ids);
+    }
+
+    private RecipeSearchResult search(RecipeSearchCriteria criteria) {
+        return singleFlight.execute(SEARCH_RECIPES, criteria, () -> readOnly(() -> evaluate(criteria)));
+    }
+
+    private <T> T readOnly(Supplier<T> load) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> load.get());
+    }
+
+    private RecipeSearchResult evaluate(RecipeSearchCriteria criteria) {
+        if (recipeCatalog.canServeSearch()) {
+            ColumnarRecipeStore.Result result = searchQueryMetrics.record(criteria, "catalog",
+                    () -> recipeCatalog.search(criteria), found -> found.recipes().size());
+            return new RecipeSearchResult(result.recipes().stream().map(RecipeMapper.INSTANCE::toDto).toList(), result.plan());
         }
+        ShardedRecipeStore shards = shardedRecipeStore.getIfAvailable();
+        if (shards != null) {
+            List<Recipe> recipes = searchQueryMetrics.record(criteria, "sharded", () -> shards.search(criteria), List::size);
+            return new RecipeSearchResult(recipes.stream().map(RecipeMapper.INSTANCE::toDto).toList(),
+                    SearchPlan.declaredOrder(criteria, SearchPlan.AccessPath.SHARDED_SCAN));
+        }
+        SearchPlan plan = recipeCatalog.isLoaded()
+                ? recipeCatalog.planForDatabase(criteria)
+                : SearchPlan.declaredOrder(criteria, SearchPlan.AccessPath.DATABASE);
+        if (recipeSearchProjection.isLoaded()) {
+            SearchPlan projectionPlan = new SearchPlan(SearchPlan.AccessPath.PROJECTION, plan.steps(), plan.estimatedRows());
+            List<RecipeRow> rows = searchQueryMetrics.record(criteria, "projection",
+                    () -> recipeSearchProjection.search(criteria, projectionPlan.steps()), List::size);
+            return new RecipeSearchResult(rows.stream().map(RecipeMapper.INSTANCE::toDto).toList(), projectionPlan);
+        }
+        CriteriaQuery<RecipeRow> cq = getRecipeCriteriaQuery(criteria, plan.steps());
+        TypedQuery<RecipeRow> query = entityManager.createQuery(cq);
+        query.setHint(HibernateHints.HINT_READ_ONLY, true);
+        List<RecipeRow> rows = searchQueryMetrics.record(criteria, "database", query::getResultList, List::size);
+        return new RecipeSearchResult(rows.stream().map(RecipeMapper.INSTANCE::toDto).toList(), plan);
+    }
+
+    private CriteriaQuery<RecipeRow> getRecipeCriteriaQuery(RecipeSearchCriteria criteria, List<SearchPlan.Step> steps) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<RecipeRow> cq = cb.createQuery(RecipeRow.class);
+        Root<Recipe> recipe = cq.from(Recipe.class);
+        cq.select(cb.construct(RecipeRow.class, recipe.get("id"), recipe.get("name"), recipe.get("vegetarian"),
+                recipe.get("servings"), recipe.get("ingredients"), recipe.get("instructions"), recipe.get("version")));
+
+        List<Predicate> predicates = new ArrayList<>();
 
-        if (excludeIngredients != null && !excludeIngredients.isEmpty()) {
-            predicates.add(cb.and(excludeIngredients.stream()
-                    .map(ingredient -> cb.notLike(cb.lower(recipe.get("ingredients")), "%" + ingredient.toLowerCase() + "%"))
-                    .toArray(Predicate[]::new)));
+        for (SearchPlan.Step step : steps) {
+            switch (step) {
+                case VEGETARIAN -> predicates.add(cb.equal(recipe.get("vegetarian"), criteria.vegetarian()));
+                case SERVINGS -> predicates.add(cb.equal(recipe.get("servings"), criteria.servings()));
+                case INSTRUCTIONS -> predicates.add(cb.like(cb.lower(recipe.get("instructions")), "%" + criteria.instructions() + "%"));
+                case INCLUDE_INGREDIENTS -> {
+                    List<Predicate> includePredicates = criteria.includeIngredients().stream()
+                            .map(ingredient -> cb.like(cb.lower(recipe.get("ingredients")), "%" + ingredient + "%"))
+                            .toList();
+                    predicates.add(cb.or(includePredicates.toArray(new Predicate[0])));
+                }
+                case EXCLUDE_INGREDIENTS -> predicates.add(cb.and(criteria.excludeIngredients().stream()
+                        .map(ingredient -> cb.notLike(cb.lower(recipe.get("ingredients")), "%" + ingredient + "%"))
+                        .toArray(Predicate[]::new)));
+            }
         }
         cq.where(predicates.toArray(new Predicate[0]));
         return cq;
@@ -0,0 +1,85 @@
+package nl.abn.assessment.recipesservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent identical calls into one: the first caller for a key runs it, callers arriving while it is in
+ * flight wait for and share its result or exception. Nothing is cached once the call completes, and a call can be
+ * forgotten while in flight so that later callers start a fresh one instead of joining it.
+ */
+@Component
+public class SingleFlight {
+
+    private record Key(String group, Object key) {
+    }
+
+    private final ConcurrentHashMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    public SingleFlight(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String group, Object key, Supplier<T> call) {
+        Key flightKey = new Key(group, key);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            counter(group, "coalesced").increment();
+            return (T) await(existing);
+        }
+        counter(group, "executed").increment();
+        try {
+            T result = call.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    /**
+     * Stops new callers from joining the call for {@code key} that is in flight; callers already waiting still share it.
+     */
+    public void forget(String group, Object key) {
+        inFlight.remove(new Key(group, key));
+    }
+
+    public void forgetGroup(String group) {
+        inFlight.keySet().removeIf(flightKey -> flightKey.group().equals(group));
+    }
+
+    private Counter counter(String group, String outcome) {
+        return Counter.builder("recipes.singleflight.calls")
+                .description("Calls that ran against the backing store or were coalesced into one already in flight")
+                .tag("operation", group)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Object await(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
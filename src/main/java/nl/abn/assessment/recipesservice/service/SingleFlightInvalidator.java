@@ -0,0 +1,39 @@
+package nl.abn.assessment.recipesservice.service;
+
+import lombok.RequiredArgsConstructor;
+import nl.abn.assessment.recipesservice.event.RecipeChangedEvent;
+import nl.abn.assessment.recipesservice.invalidation.InvalidationListener;
+import nl.abn.assessment.recipesservice.invalidation.RecipeInvalidation;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Detaches reads in flight from a recipe once a write to it is known, so a caller arriving after the write starts a
+ * new read instead of sharing one that began before it. Runs ahead of the caches: a caller refilling a cache after it
+ * was invalidated must not get the old row.
+ */
+@Component
+@RequiredArgsConstructor
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SingleFlightInvalidator implements InvalidationListener {
+
+    private final SingleFlight singleFlight;
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        forget(event.recipeId());
+    }
+
+    @Override
+    public void onInvalidation(RecipeInvalidation invalidation) {
+        forget(invalidation.recipeId());
+    }
+
+    private void forget(Long recipeId) {
+        singleFlight.forget(RecipeService.GET_RECIPE_BY_ID, recipeId);
+        singleFlight.forgetGroup(RecipeService.SEARCH_RECIPES);
+    }
+}
@@ -0,0 +1,53 @@
+package nl.abn.assessment.recipesservice.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Maps recipe ids onto nodes placed at {@code virtualNodes} points each on a 64-bit hash ring. Adding a node only
+ * takes over the arcs in front of its own points, so roughly {@code 1/n} of the keys move.
+ */
+public final class ConsistentHashRing<T> {
+
+    private final NavigableMap<Long, T> ring = new TreeMap<>();
+
+    public ConsistentHashRing(Map<String, T> nodes, int virtualNodes) {
+        if (nodes.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("A hash ring needs at least one node and one virtual node per node");
+        }
+        nodes.forEach((name, node) -> {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(name + "#" + i), node);
+            }
+        });
+    }
+
+    public T nodeFor(long key) {
+        Map.Entry<Long, T> entry = ring.ceilingEntry(mix(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    private static long hash(String point) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(point.getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                hash = (hash << 8) | (digest[i] & 0xff);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+    }
+
+    // Sequential ids are spread over the ring with the SplitMix64 finalizer.
+    private static long mix(long key) {
+        key = (key ^ (key >>> 30)) * 0xbf58476d1ce4e5b9L;
+        key = (key ^ (key >>> 27)) * 0x94d049bb133111ebL;
+        return key ^ (key >>> 31);
+    }
+}
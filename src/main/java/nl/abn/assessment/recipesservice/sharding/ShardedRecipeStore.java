@@ -0,0 +1,317 @@
+package nl.abn.assessment.recipesservice.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.abn.assessment.recipesservice.model.Recipe;
+import nl.abn.assessment.recipesservice.service.RecipeSearchCriteria;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Recipes partitioned by id over several datasources with a {@link ConsistentHashRing}. Single-id operations go to
+ * the owning shard, searches run on every shard in parallel and are merged in id order. Ids come from the sequence on
+ * one named shard, so they stay unique across shards whatever order the shards are listed in. The shards are H2
+ * databases: {@code shard-schema.sql} and the id sequence use H2 syntax, the remaining statements are plain SQL.
+ * <p>
+ * Each statement commits on its shard on its own. It does not take part in the primary datasource's transaction that
+ * records the change in {@code recipe_change}, so a crash or a failed commit between the two leaves the shard
+ * written without a change record (caches on other instances keep the old recipe until it changes again) or, when
+ * the primary transaction fails after the shard write, a write the caller saw fail. There is no outbox to replay
+ * either side.
+ * <p>
+ * Shards can be added at runtime with {@link #addShard(Shard)}; the rows the new shard now owns are copied over and
+ * then deleted at their old location. Traffic on this instance waits while that happens, but the lock is local:
+ * other instances keep serving, and a shard added at runtime is only on this instance's ring. Rebalance with one
+ * instance serving traffic, or with every instance already configured with the same shards. A copy never overwrites
+ * a row the owning shard already has, so rebalances running on several instances at once cannot bring back an older
+ * version of a recipe.
+ * <p>
+ * Adding a shard never moves the id sequence. Pointing the store at a different sequence shard is safe across a
+ * restart: on startup the sequence is moved past the highest id on any shard. Do that while no other instance is
+ * inserting, since they keep drawing from the old sequence until they restart too.
+ */
+@Slf4j
+public class ShardedRecipeStore implements AutoCloseable {
+
+    private static final String COLUMNS = "id, name, vegetarian, servings, ingredients, instructions, version";
+
+    private static final String INSERT = "INSERT INTO recipe (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int REBALANCE_BATCH_SIZE = 500;
+
+    private static final RowMapper<Recipe> RECIPE_ROW_MAPPER = (rs, rowNum) -> new Recipe(rs.getLong("id"),
+            rs.getString("name"), rs.getBoolean("vegetarian"), rs.getInt("servings"),
+            rs.getString("ingredients"), rs.getString("instructions"), rs.getLong("version"));
+
+    public record Shard(String name, DataSource dataSource) {
+    }
+
+    private record Node(String name, DataSource dataSource, JdbcTemplate jdbc) {
+    }
+
+    private final int virtualNodes;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Node sequenceNode;
+
+    private List<Node> nodes;
+
+    private ConsistentHashRing<Node> ring;
+
+    public ShardedRecipeStore(List<Shard> shards, String sequenceShard, int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+        this.nodes = shards.stream().map(ShardedRecipeStore::initialize).toList();
+        this.ring = ring(nodes, virtualNodes);
+        this.sequenceNode = nodes.stream()
+                .filter(node -> node.name().equals(sequenceShard))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Id sequence shard " + sequenceShard + " is not one of the shards"));
+        advanceSequencePastStoredIds();
+    }
+
+    public Recipe insert(Recipe recipe) {
+        lock.readLock().lock();
+        try {
+            long id = sequenceNode.jdbc().queryForObject("SELECT NEXT VALUE FOR recipe_id_seq", Long.class);
+            Recipe stored = new Recipe(id, recipe.getName(), recipe.isVegetarian(), recipe.getServings(),
+                    recipe.getIngredients(), recipe.getInstructions(), 0L);
+            ring.nodeFor(id).jdbc().update(INSERT, stored.getId(), stored.getName(), stored.isVegetarian(),
+                    stored.getServings(), stored.getIngredients(), stored.getInstructions(), stored.getVersion());
+            return stored;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<Recipe> findById(long id) {
+        lock.readLock().lock();
+        try {
+            return ring.nodeFor(id).jdbc()
+                    .query("SELECT " + COLUMNS + " FROM recipe WHERE id = ?", RECIPE_ROW_MAPPER, id)
+                    .stream().findFirst();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes {@code recipe} if its version is still the stored one, and then advances its version.
+     *
+     * @return {@code false} when the recipe is gone or was updated by somebody else since it was read
+     */
+    public boolean update(Recipe recipe) {
+        lock.readLock().lock();
+        try {
+            boolean updated = ring.nodeFor(recipe.getId()).jdbc().update(
+                    "UPDATE recipe SET name = ?, vegetarian = ?, servings = ?, ingredients = ?, instructions = ?, version = version + 1"
+                            + " WHERE id = ? AND version = ?",
+                    recipe.getName(), recipe.isVegetarian(), recipe.getServings(), recipe.getIngredients(),
+                    recipe.getInstructions(), recipe.getId(), recipe.getVersion()) > 0;
+            if (updated) {
+                recipe.setVersion(recipe.getVersion() + 1);
+            }
+            return updated;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean delete(long id) {
+        lock.readLock().lock();
+        try {
+            return ring.nodeFor(id).jdbc().update("DELETE FROM recipe WHERE id = ?", id) > 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Recipe> search(RecipeSearchCriteria criteria) {
+        StringBuilder sql = new StringBuilder("SELECT " + COLUMNS + " FROM recipe WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (criteria.vegetarian() != null) {
+            sql.append(" AND vegetarian = ?");
+            args.add(criteria.vegetarian());
+        }
+        if (criteria.servings() != null) {
+            sql.append(" AND servings = ?");
+            args.add(criteria.servings());
+        }
+        if (criteria.hasIncludeIngredients()) {
+            sql.append(" AND (");
+            for (int i = 0; i < criteria.includeIngredients().size(); i++) {
+                sql.append(i == 0 ? "" : " OR ").append("LOWER(ingredients) LIKE ?");
+                args.add("%" + criteria.includeIngredients().get(i) + "%");
+            }
+            sql.append(")");
+        }
+        for (String ingredient : criteria.excludeIngredients()) {
+            sql.append(" AND LOWER(ingredients) NOT LIKE ?");
+            args.add("%" + ingredient + "%");
+        }
+        if (criteria.hasInstructions()) {
+            sql.append(" AND LOWER(instructions) LIKE ?");
+            args.add("%" + criteria.instructions() + "%");
+        }
+        String query = sql.append(" ORDER BY id").toString();
+        Object[] parameters = args.toArray();
+
+        lock.readLock().lock();
+        try {
+            List<CompletableFuture<List<Recipe>>> results = nodes.stream()
+                    .map(node -> CompletableFuture.supplyAsync(() -> node.jdbc().query(query, RECIPE_ROW_MAPPER, parameters), executor))
+                    .toList();
+            return results.stream()
+                    .flatMap(result -> result.join().stream())
+                    .sorted(Comparator.comparing(Recipe::getId))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a shard to the ring and moves the recipes it now owns onto it.
+     *
+     * @return the number of recipes moved
+     */
+    public int addShard(Shard shard) {
+        lock.writeLock().lock();
+        try {
+            if (nodes.stream().anyMatch(node -> node.name().equals(shard.name()))) {
+                throw new IllegalArgumentException("Shard " + shard.name() + " already exists");
+            }
+            List<Node> grown = new ArrayList<>(nodes);
+            grown.add(initialize(shard));
+            nodes = List.copyOf(grown);
+            ring = ring(nodes, virtualNodes);
+            return rebalanceLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves every recipe that is not stored on the shard the ring assigns it to, e.g. after the shard list in the
+     * configuration changed between restarts. Moving is idempotent, so an interrupted rebalance can simply be rerun.
+     *
+     * @return the number of recipes moved
+     */
+    public int rebalance() {
+        lock.writeLock().lock();
+        try {
+            return rebalanceLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Map<String, Long> countsByShard() {
+        lock.readLock().lock();
+        try {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            nodes.forEach(node -> counts.put(node.name(), node.jdbc().queryForObject("SELECT COUNT(*) FROM recipe", Long.class)));
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    String shardFor(long id) {
+        return ring.nodeFor(id).name();
+    }
+
+    @Override
+    public void close() throws Exception {
+        executor.shutdown();
+        for (Node node : nodes) {
+            if (node.dataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    /**
+     * Moves the id sequence past every stored id, for when the sequence shard was changed to one whose sequence has
+     * not handed out the ids in use.
+     */
+    private void advanceSequencePastStoredIds() {
+        long maxId = 0;
+        for (Node node : nodes) {
+            Long shardMax = node.jdbc().queryForObject("SELECT MAX(id) FROM recipe", Long.class);
+            maxId = Math.max(maxId, shardMax == null ? 0 : shardMax);
+        }
+        Long next = sequenceNode.jdbc().queryForObject(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'RECIPE_ID_SEQ'", Long.class);
+        if (next != null && next <= maxId) {
+            log.warn("Id sequence on shard {} is behind the stored ids, restarting it at {}", sequenceNode.name(), maxId + 1);
+            sequenceNode.jdbc().execute("ALTER SEQUENCE recipe_id_seq RESTART WITH " + (maxId + 1));
+        }
+    }
+
+    private int rebalanceLocked() {
+        int moved = 0;
+        for (Node source : nodes) {
+            long lastId = Long.MIN_VALUE;
+            List<Recipe> batch;
+            do {
+                batch = source.jdbc().query("SELECT " + COLUMNS + " FROM recipe WHERE id > ? ORDER BY id LIMIT ?",
+                        RECIPE_ROW_MAPPER, lastId, REBALANCE_BATCH_SIZE);
+                for (Recipe recipe : batch) {
+                    Node owner = ring.nodeFor(recipe.getId());
+                    if (owner != source) {
+                        copy(owner, recipe);
+                        source.jdbc().update("DELETE FROM recipe WHERE id = ?", recipe.getId());
+                        moved++;
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    lastId = batch.getLast().getId();
+                }
+            } while (batch.size() == REBALANCE_BATCH_SIZE);
+        }
+        log.info("Rebalanced {} recipes over {} shards", moved, nodes.size());
+        return moved;
+    }
+
+    /**
+     * Copies {@code recipe} onto {@code node} unless the node has it already, e.g. from an interrupted rebalance or one
+     * running on another instance; the copy there may have been updated since, so it wins.
+     */
+    private static void copy(Node node, Recipe recipe) {
+        try {
+            node.jdbc().update(INSERT, recipe.getId(), recipe.getName(), recipe.isVegetarian(), recipe.getServings(),
+                    recipe.getIngredients(), recipe.getInstructions(), recipe.getVersion());
+        } catch (DuplicateKeyException e) {
+            log.debug("Recipe {} is already on shard {}", recipe.getId(), node.name());
+        }
+    }
+
+    private static Node initialize(Shard shard) {
+        new ResourceDatabasePopulator(new ClassPathResource("shard-schema.sql")).execute(shard.dataSource());
+        return new Node(shard.name(), shard.dataSource(), new JdbcTemplate(shard.dataSource()));
+    }
+
+    private static ConsistentHashRing<Node> ring(List<Node> nodes, int virtualNodes) {
+        Map<String, Node> byName = new LinkedHashMap<>();
+        nodes.forEach(node -> byName.put(node.name(), node));
+        return new ConsistentHashRing<>(byName, virtualNodes);
+    }
+}
@@ -0,0 +1,56 @@
+package nl.abn.assessment.recipesservice.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Builds the shard datasources from {@code recipes.sharding.shards}. They are deliberately not exposed as beans so the
+ * primary datasource, which keeps the change log, stays auto-configured.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "recipes.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public ShardedRecipeStore shardedRecipeStore(RecipesServiceProperties properties) {
+        RecipesServiceProperties.Sharding sharding = properties.getSharding();
+        if (sharding.getShards().isEmpty()) {
+            throw new IllegalStateException("recipes.sharding.enabled is set but no recipes.sharding.shards are configured");
+        }
+        if (sharding.getIdSequenceShard() == null) {
+            throw new IllegalStateException("recipes.sharding.enabled is set but no recipes.sharding.id-sequence-shard is configured");
+        }
+        List<ShardedRecipeStore.Shard> shards = sharding.getShards().stream()
+                .map(ShardingConfiguration::shard)
+                .toList();
+        ShardedRecipeStore store = new ShardedRecipeStore(shards, sharding.getIdSequenceShard(), sharding.getVirtualNodes());
+        if (sharding.isRebalanceOnStartup()) {
+            store.rebalance();
+        }
+        return store;
+    }
+
+    @Bean
+    public ShardsEndpoint shardsEndpoint(ShardedRecipeStore shardedRecipeStore) {
+        return new ShardsEndpoint(shardedRecipeStore);
+    }
+
+    private static ShardedRecipeStore.Shard shard(RecipesServiceProperties.Shard shard) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(shard.getUrl().contains(";DB_CLOSE_DELAY") || !shard.getUrl().startsWith("jdbc:h2:mem:")
+                        ? shard.getUrl() : shard.getUrl() + ";DB_CLOSE_DELAY=-1")
+                .username(shard.getUsername())
+                .password(shard.getPassword())
+                .build();
+        dataSource.setPoolName("shard-" + shard.getName());
+        dataSource.setMaximumPoolSize(shard.getMaximumPoolSize());
+        return new ShardedRecipeStore.Shard(shard.getName(), dataSource);
+    }
+}
@@ -0,0 +1,29 @@
+package nl.abn.assessment.recipesservice.sharding;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/shards}: recipe counts per shard, and a POST to rerun the rebalance. The rebalance only pauses
+ * traffic on the instance that receives the POST; see {@link ShardedRecipeStore}.
+ */
+@Endpoint(id = "shards")
+@RequiredArgsConstructor
+public class ShardsEndpoint {
+
+    private final ShardedRecipeStore shardedRecipeStore;
+
+    @ReadOperation
+    public Map<String, Long> counts() {
+        return shardedRecipeStore.countsByShard();
+    }
+
+    @WriteOperation
+    public Map<String, Integer> rebalance() {
+        return Map.of("moved", shardedRecipeStore.rebalance());
+    }
+}
@@ -5,9 +5,41 @@ CREATE TABLE Recipe
     vegetarian  BOOLEAN,
     servings    INT,
     ingredients VARCHAR(255) NOT NULL,
-    instructions VARCHAR(255) NOT NULL
+    instructions VARCHAR(255) NOT NULL,
+    version     BIGINT NOT NULL DEFAULT 0
 );
 
+CREATE TABLE recipe_change
+(
+    seq         BIGINT PRIMARY KEY AUTO_INCREMENT,
+    recipe_id   BIGINT NOT NULL,
+    operation   VARCHAR(10) NOT NULL,
+    changed_at  TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+-- Pollers range-scan seq through the primary key index; retention prunes by changed_at.
+CREATE INDEX recipe_change_changed_at ON recipe_change (changed_at);
+
+CREATE TABLE recipe_search
+(
+    recipe_id   BIGINT PRIMARY KEY,
+    vegetarian  BOOLEAN NOT NULL,
+    servings    INT NOT NULL,
+    version     BIGINT NOT NULL
+);
+
+CREATE INDEX recipe_search_vegetarian_servings ON recipe_search (vegetarian, servings);
+
+CREATE TABLE recipe_search_term
+(
+    field       VARCHAR(12) NOT NULL,
+    term        VARCHAR(255) NOT NULL,
+    recipe_id   BIGINT NOT NULL,
+    PRIMARY KEY (field, term, recipe_id)
+);
+
+CREATE INDEX recipe_search_term_recipe ON recipe_search_term (recipe_id);
+
 insert into Recipe (name, vegetarian, servings, ingredients, instructions) values ('Pasta', true, 4, 'pasta, tomato sauce, cheese', 'Cook pasta, add tomato sauce, add cheese');
 insert into Recipe (name, vegetarian, servings, ingredients, instructions) values ('Salad', true, 2, 'lettuce, tomato, cucumber, dressing', 'Mix lettuce, tomato, cucumber, add dressing');
 insert into Recipe (name, vegetarian, servings, ingredients, instructions) values ('Steak', false, 1, 'steak, salt, pepper', 'Season steak with salt and pepper, cook steak');
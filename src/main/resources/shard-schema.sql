@@ -0,0 +1,14 @@
+CREATE TABLE IF NOT EXISTS recipe
+(
+    id           BIGINT PRIMARY KEY,
+    name         VARCHAR(255) NOT NULL,
+    vegetarian   BOOLEAN,
+    servings     INT,
+    ingredients  VARCHAR(255) NOT NULL,
+    instructions VARCHAR(255) NOT NULL,
+    version      BIGINT NOT NULL DEFAULT 0
+);
+
+ALTER TABLE recipe ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+CREATE SEQUENCE IF NOT EXISTS recipe_id_seq;
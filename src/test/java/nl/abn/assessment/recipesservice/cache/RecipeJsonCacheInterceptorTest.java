@@ -0,0 +1,90 @@
+package nl.abn.assessment.recipesservice.cache;
+
+import nl.abn.assessment.recipesservice.exception.RecipeNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RecipeJsonCacheInterceptorTest {
+
+    private static final byte[] JSON = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] GZIP = {31, -117, 8};
+
+    private final RecipeJsonCache cache = mock(RecipeJsonCache.class);
+
+    private RecipeJsonCacheInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new RecipeJsonCacheInterceptor(cache);
+        when(cache.get(1L)).thenReturn(new RecipeJsonCache.EncodedRecipe(JSON, GZIP, "\"1-0-json\"", "\"1-0-gzip\""));
+    }
+
+    @Test
+    void preHandle_ServesCachedBytesAndVariesOnAcceptAndEncoding() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(interceptor.preHandle(request(1L, "gzip"), response, new Object()));
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(GZIP, response.getContentAsByteArray());
+        assertEquals(List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING), response.getHeaders(HttpHeaders.VARY));
+        assertEquals("\"1-0-gzip\"", response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void preHandle_IfNoneMatchOnlyMatchesTheServedRepresentation() throws Exception {
+        MockHttpServletRequest plain = request(1L, null);
+        plain.addHeader(HttpHeaders.IF_NONE_MATCH, "\"1-0-gzip\"");
+        MockHttpServletResponse plainResponse = new MockHttpServletResponse();
+        interceptor.preHandle(plain, plainResponse, new Object());
+
+        MockHttpServletRequest compressed = request(1L, "gzip");
+        compressed.addHeader(HttpHeaders.IF_NONE_MATCH, "\"1-0-gzip\"");
+        MockHttpServletResponse compressedResponse = new MockHttpServletResponse();
+        interceptor.preHandle(compressed, compressedResponse, new Object());
+
+        assertEquals(200, plainResponse.getStatus());
+        assertEquals("\"1-0-json\"", plainResponse.getHeader(HttpHeaders.ETAG));
+        assertEquals(304, compressedResponse.getStatus());
+    }
+
+    @Test
+    void preHandle_GzipRefusedWithZeroQuality_ServesPlainJson() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request(1L, "gzip;q=0, identity"), response, new Object());
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(JSON, response.getContentAsByteArray());
+    }
+
+    @Test
+    void preHandle_UnknownRecipe_PropagatesNotFoundWithoutSecondLookup() {
+        when(cache.get(9L)).thenThrow(new RecipeNotFoundException(9L));
+
+        assertThrows(RecipeNotFoundException.class,
+                () -> interceptor.preHandle(request(9L, null), new MockHttpServletResponse(), new Object()));
+        verify(cache, times(1)).get(9L);
+    }
+
+    private static MockHttpServletRequest request(Long id, String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/recipe/" + id);
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("id", String.valueOf(id)));
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return request;
+    }
+}
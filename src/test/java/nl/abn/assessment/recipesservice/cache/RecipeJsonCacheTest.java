@@ -0,0 +1,121 @@
+package nl.abn.assessment.recipesservice.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import nl.abn.assessment.recipesservice.event.RecipeChangedEvent;
+import nl.abn.assessment.recipesservice.exception.RecipeNotFoundException;
+import nl.abn.assessment.recipesservice.invalidation.RecipeInvalidation;
+import nl.abn.assessment.recipesservice.model.RecipeChange;
+import nl.abn.assessment.recipesservice.model.RecipeDto;
+import nl.abn.assessment.recipesservice.service.RecipeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RecipeJsonCacheTest {
+
+    private final RecipeService recipeService = mock(RecipeService.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private RecipeJsonCache cache;
+
+    @BeforeEach
+    void setUp() {
+        RecipesServiceProperties properties = new RecipesServiceProperties();
+        properties.getCompression().setMinResponseBytes(200);
+        cache = new RecipeJsonCache(recipeService, objectMapper, properties);
+    }
+
+    @Test
+    void get_EncodesOnceAndServesCachedBytes() throws IOException {
+        when(recipeService.getRecipeById(1L)).thenReturn(recipe(1L, "Pasta"));
+
+        RecipeJsonCache.EncodedRecipe first = cache.get(1L);
+        RecipeJsonCache.EncodedRecipe second = cache.get(1L);
+
+        assertSame(first, second);
+        assertEquals("Pasta", objectMapper.readValue(first.json(), RecipeDto.class).getName());
+        assertFalse(first.hasGzip());
+        verify(recipeService, times(1)).getRecipeById(1L);
+    }
+
+    @Test
+    void get_LargeRecipe_KeepsGzipBytes() throws IOException {
+        when(recipeService.getRecipeById(2L)).thenReturn(recipe(2L, String.join("", Collections.nCopies(20, "Lasagna "))));
+
+        RecipeJsonCache.EncodedRecipe encoded = cache.get(2L);
+
+        assertTrue(encoded.hasGzip());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(encoded.gzip()))) {
+            assertEquals(new String(encoded.json(), StandardCharsets.UTF_8), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void onRecipeChanged_InvalidatesEntry() {
+        RecipeDto updated = recipe(1L, "Pasta al forno");
+        updated.setVersion(1L);
+        when(recipeService.getRecipeById(1L)).thenReturn(recipe(1L, "Pasta"), updated);
+        RecipeJsonCache.EncodedRecipe before = cache.get(1L);
+
+        cache.onRecipeChanged(new RecipeChangedEvent(new RecipeChange(1L, RecipeChange.Operation.UPDATED), null));
+        RecipeJsonCache.EncodedRecipe after = cache.get(1L);
+
+        assertEquals("\"1-0-json\"", before.jsonEtag());
+        assertEquals("\"1-1-json\"", after.jsonEtag());
+        verify(recipeService, times(2)).getRecipeById(1L);
+    }
+
+    @Test
+    void onInvalidation_LateMessage_KeepsEntry() {
+        when(recipeService.getRecipeById(1L)).thenReturn(recipe(1L, "Pasta"), recipe(1L, "Pasta al forno"));
+        cache.onInvalidation(new RecipeInvalidation(1L, 5, false));
+        RecipeJsonCache.EncodedRecipe current = cache.get(1L);
+
+        cache.onInvalidation(new RecipeInvalidation(1L, 4, false));
+
+        assertSame(current, cache.get(1L));
+        verify(recipeService, times(1)).getRecipeById(1L);
+    }
+
+    @Test
+    void get_InvalidatedWhileLoading_DoesNotCacheLoadedBytes() {
+        when(recipeService.getRecipeById(1L)).thenAnswer(invocation -> {
+            cache.onInvalidation(new RecipeInvalidation(1L, 7, false));
+            return recipe(1L, "Pasta");
+        });
+
+        cache.get(1L);
+        cache.get(1L);
+
+        verify(recipeService, times(2)).getRecipeById(1L);
+    }
+
+    @Test
+    void get_UnknownRecipe_PropagatesNotFound() {
+        when(recipeService.getRecipeById(9L)).thenThrow(new RecipeNotFoundException("Recipe not found with id: 9"));
+
+        assertThrows(RecipeNotFoundException.class, () -> cache.get(9L));
+    }
+
+    private static RecipeDto recipe(Long id, String name) {
+        RecipeDto recipe = new RecipeDto();
+        recipe.setId(id);
+        recipe.setName(name);
+        recipe.setVegetarian(true);
+        recipe.setServings(4);
+        recipe.setIngredients(List.of("pasta", "cheese"));
+        recipe.setInstructions("Cook pasta");
+        return recipe;
+    }
+}
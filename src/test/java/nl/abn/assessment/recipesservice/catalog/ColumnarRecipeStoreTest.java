@@ -0,0 +1,131 @@
+package nl.abn.assessment.recipesservice.catalog;
+
+import nl.abn.assessment.recipesservice.model.Recipe;
+import nl.abn.assessment.recipesservice.service.RecipeSearchCriteria;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarRecipeStoreTest {
+
+    private ColumnarRecipeStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ColumnarRecipeStore();
+        store.put(new Recipe(1L, "Pasta", true, 4, "pasta, tomato sauce, cheese", "Cook pasta, add tomato sauce, add cheese", 0L));
+        store.put(new Recipe(2L, "Salad", true, 2, "lettuce, tomato, cucumber, dressing", "Mix lettuce, tomato, cucumber, add dressing", 0L));
+        store.put(new Recipe(3L, "Steak", false, 1, "steak, salt, pepper", "Season steak with salt and pepper, cook steak", 0L));
+        store.put(new Recipe(4L, "Soup", true, 6, "vegetables, broth", "Cook vegetables in broth", 0L));
+        store.put(new Recipe(5L, "Sandwich", true, 1, "bread, meat, cheese, lettuce, tomato", "Assemble sandwich", 0L));
+    }
+
+    @Test
+    void get_ReturnsMaterializedRecipe() {
+        assertEquals(new Recipe(1L, "Pasta", true, 4, "pasta, tomato sauce, cheese", "Cook pasta, add tomato sauce, add cheese", 0L), store.get(1L));
+        assertNull(store.get(99L));
+    }
+
+    @Test
+    void search_NoFilters_ReturnsAllInIdOrder() {
+        List<Recipe> result = store.search(criteria(null, null, null, null, null));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), ids(result));
+    }
+
+    @Test
+    void search_VegetarianAndServings() {
+        assertEquals(List.of(5L), ids(store.search(criteria(true, 1, null, null, null))));
+        assertEquals(List.of(3L), ids(store.search(criteria(false, null, null, null, null))));
+    }
+
+    @Test
+    void search_IncludeMatchesIngredientSubstrings() {
+        assertEquals(List.of(1L, 2L, 5L), ids(store.search(criteria(null, null, null, List.of("TOMATO"), null))));
+        assertEquals(List.of(), ids(store.search(criteria(null, null, null, List.of("nonexistent"), null))));
+    }
+
+    @Test
+    void search_ExcludeRemovesRecipesWithAnyMatchingIngredient() {
+        assertEquals(List.of(3L, 4L), ids(store.search(criteria(null, null, null, null, List.of("tomato", "cheese")))));
+    }
+
+    @Test
+    void search_InstructionsIsCaseInsensitiveSubstring() {
+        assertEquals(List.of(1L, 3L, 4L), ids(store.search(criteria(null, null, "COOK", null, null))));
+    }
+
+    @Test
+    void search_InstructionsMatchesNonAsciiTextIgnoringCase() {
+        store.put(new Recipe(6L, "Crème brûlée", true, 4, "cream, sugar", "CRÈME au four, puis BRÛLER", 0L));
+
+        assertEquals(List.of(6L), ids(store.search(criteria(null, null, "crème AU", null, null))));
+        assertEquals(List.of(6L), ids(store.search(criteria(null, null, "brûler", null, null))));
+        assertEquals("CRÈME au four, puis BRÛLER", store.get(6L).getInstructions());
+    }
+
+    @Test
+    void put_ExistingId_ReplacesRecipe() {
+        store.put(new Recipe(1L, "Pasta al forno", true, 2, "pasta, cheese", "Bake pasta", 0L));
+
+        assertEquals(5, store.size());
+        assertEquals("Pasta al forno", store.get(1L).getName());
+        assertEquals(List.of(), ids(store.search(criteria(null, null, "cook pasta", null, null))));
+        assertEquals(List.of(1L, 2L), ids(store.search(criteria(null, 2, null, null, null))));
+    }
+
+    @Test
+    void remove_DropsRecipeFromSearch() {
+        store.remove(2L);
+
+        assertEquals(4, store.size());
+        assertNull(store.get(2L));
+        assertEquals(List.of(1L, 5L), ids(store.search(criteria(null, null, null, List.of("tomato"), null))));
+    }
+
+    @Test
+    void put_ManyUpdates_CompactsWithoutLosingRecipes() {
+        for (int i = 0; i < 5000; i++) {
+            store.put(new Recipe(4L, "Soup " + i, true, 6, "vegetables, broth", "Cook vegetables in broth", 0L));
+        }
+
+        assertEquals(5, store.size());
+        assertEquals("Soup 4999", store.get(4L).getName());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), ids(store.search(criteria(null, null, null, null, null))));
+    }
+
+    @Test
+    void search_ParallelScan_MatchesSequentialScanInIdOrder() {
+        ColumnarRecipeStore large = new ColumnarRecipeStore();
+        for (long id = 1; id <= 20_000; id++) {
+            large.put(new Recipe(id, "Recipe " + id, id % 2 == 0, (int) (id % 6) + 1,
+                    id % 3 == 0 ? "flour, nuts" : "flour, sugar", "Bake for " + id + " minutes", 0L));
+        }
+        for (long id = 1; id <= 20_000; id += 7) {
+            large.put(new Recipe(id, "Updated " + id, true, 1, "flour, sugar", "Bake for " + id + " minutes", 0L));
+        }
+        RecipeSearchCriteria excludeOnly = criteria(null, null, null, null, List.of("nuts"));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<Recipe> parallel = large.search(excludeOnly, new ColumnarRecipeStore.ParallelScan(pool, 0, 1_000)).recipes();
+
+            assertEquals(large.search(excludeOnly), parallel);
+            List<Long> ids = ids(parallel);
+            assertEquals(ids.stream().sorted().toList(), ids);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static RecipeSearchCriteria criteria(Boolean vegetarian, Integer servings, String instructions,
+                                                 List<String> include, List<String> exclude) {
+        return RecipeSearchCriteria.of(vegetarian, servings, instructions, include, exclude);
+    }
+
+    private static List<Long> ids(List<Recipe> recipes) {
+        return recipes.stream().map(Recipe::getId).toList();
+    }
+}
@@ -0,0 +1,72 @@
+package nl.abn.assessment.recipesservice.catalog;
+
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import nl.abn.assessment.recipesservice.model.Recipe;
+import nl.abn.assessment.recipesservice.model.RecipeChange;
+import nl.abn.assessment.recipesservice.repository.RecipeChangeRepository;
+import nl.abn.assessment.recipesservice.repository.RecipeRepository;
+import nl.abn.assessment.recipesservice.sharding.ShardedRecipeStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RecipeCatalogLoaderTest {
+
+    private final RecipeRepository recipeRepository = mock(RecipeRepository.class);
+
+    private final RecipeChangeRepository recipeChangeRepository = mock(RecipeChangeRepository.class);
+
+    private final RecipesServiceProperties properties = new RecipesServiceProperties();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void run_ChangeCommittedBelowSnapshotWatermark_IsCaughtUp() throws IOException {
+        Path path = tempDir.resolve("recipes.snapshot");
+        RecipeCatalog written = new RecipeCatalog(properties);
+        written.load(List.of(new Recipe(1L, "Pasta", true, 4, "pasta", "Cook pasta", 3L)), 42L);
+        new RecipeSnapshotStore().write(path, written);
+        properties.getCatalog().getSnapshot().setPath(path.toString());
+        properties.getCatalog().setCatchUpWindow(10);
+        when(recipeChangeRepository.findBySeqGreaterThanOrderBySeqAsc(32L))
+                .thenReturn(List.of(new RecipeChange(40L, 1L, RecipeChange.Operation.UPDATED, Instant.now())));
+        when(recipeRepository.findById(1L)).thenReturn(Optional.of(new Recipe(1L, "Penne", true, 4, "pasta", "Cook pasta", 4L)));
+        RecipeCatalog catalog = new RecipeCatalog(properties);
+
+        new RecipeCatalogLoader(catalog, recipeRepository, recipeChangeRepository, properties,
+                new StaticListableBeanFactory().getBeanProvider(ShardedRecipeStore.class)).run(null);
+
+        assertEquals("Penne", catalog.get(1L).getName());
+        assertEquals(42L, catalog.getWatermark());
+        verify(recipeRepository, never()).findAll();
+    }
+
+    @Test
+    void run_SnapshotOlderThanRetainedChangeLog_LoadsFromTable() throws IOException {
+        Path path = tempDir.resolve("recipes.snapshot");
+        RecipeCatalog written = new RecipeCatalog(properties);
+        written.load(List.of(new Recipe(1L, "Pasta", true, 4, "pasta", "Cook pasta", 3L)), 42L);
+        new RecipeSnapshotStore().write(path, written);
+        properties.getCatalog().getSnapshot().setPath(path.toString());
+        when(recipeChangeRepository.findOldestSeq()).thenReturn(50L);
+        when(recipeChangeRepository.findLatestSeq()).thenReturn(60L);
+        when(recipeRepository.findAll()).thenReturn(List.of(new Recipe(1L, "Penne", true, 4, "pasta", "Cook pasta", 9L)));
+        RecipeCatalog catalog = new RecipeCatalog(properties);
+
+        new RecipeCatalogLoader(catalog, recipeRepository, recipeChangeRepository, properties,
+                new StaticListableBeanFactory().getBeanProvider(ShardedRecipeStore.class)).run(null);
+
+        assertEquals("Penne", catalog.get(1L).getName());
+        assertEquals(60L, catalog.getWatermark());
+    }
+}
@@ -0,0 +1,60 @@
+package nl.abn.assessment.recipesservice.catalog;
+
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import nl.abn.assessment.recipesservice.model.Recipe;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeSnapshotStoreTest {
+
+    private final RecipeSnapshotStore store = new RecipeSnapshotStore();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void writeAndRead_RoundTripsCatalogAndWatermark() throws IOException {
+        RecipeCatalog catalog = new RecipeCatalog(new RecipesServiceProperties());
+        catalog.load(List.of(
+                new Recipe(1L, "Pasta", true, 4, "pasta, tomato sauce", "Cook pasta", 5L),
+                new Recipe(2L, "Crème brûlée", false, 2, "cream, sugar", null, 0L)), 42L);
+        Path path = tempDir.resolve("recipes.snapshot");
+
+        store.write(path, catalog);
+        RecipeSnapshotStore.Snapshot snapshot = store.read(path);
+
+        assertEquals(42L, snapshot.watermark());
+        assertEquals(2, snapshot.recipes().size());
+        assertEquals(new Recipe(1L, "Pasta", true, 4, "pasta, tomato sauce", "Cook pasta", 5L), snapshot.recipes().get(0));
+        assertEquals("Crème brûlée", snapshot.recipes().get(1).getName());
+        assertNull(snapshot.recipes().get(1).getInstructions());
+    }
+
+    @Test
+    void read_InvalidFile_ThrowsIOException() throws IOException {
+        Path path = tempDir.resolve("garbage.snapshot");
+        Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+        assertThrows(IOException.class, () -> store.read(path));
+    }
+
+    @Test
+    void read_TruncatedFile_ThrowsIOException() throws IOException {
+        RecipeCatalog catalog = new RecipeCatalog(new RecipesServiceProperties());
+        catalog.load(List.of(new Recipe(1L, "Pasta", true, 4, "pasta", "Cook pasta", 0L)), 1L);
+        Path path = tempDir.resolve("recipes.snapshot");
+        store.write(path, catalog);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 4));
+
+        assertThrows(IOException.class, () -> store.read(path));
+    }
+}
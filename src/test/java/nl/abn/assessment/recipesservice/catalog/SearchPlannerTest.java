@@ -0,0 +1,65 @@
+package nl.abn.assessment.recipesservice.catalog;
+
+import nl.abn.assessment.recipesservice.model.Recipe;
+import nl.abn.assessment.recipesservice.service.RecipeSearchCriteria;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchPlannerTest {
+
+    private final SearchPlanner planner = new SearchPlanner();
+
+    private ColumnarRecipeStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ColumnarRecipeStore();
+        for (long id = 1; id <= 100; id++) {
+            String ingredients = id % 50 == 0 ? "saffron, rice" : "rice, salt";
+            store.put(new Recipe(id, "Recipe " + id, id % 10 != 0, id % 2 == 0 ? 2 : 4, ingredients, "Cook the rice", 0L));
+        }
+    }
+
+    @Test
+    void plan_RareIngredientBecomesAccessPath() {
+        SearchPlan plan = planner.plan(criteria(true, null, "cook", List.of("saffron"), null), store);
+
+        assertEquals(SearchPlan.AccessPath.INGREDIENT_POSTINGS, plan.accessPath());
+        assertEquals(List.of(SearchPlan.Step.VEGETARIAN, SearchPlan.Step.INSTRUCTIONS), plan.steps());
+    }
+
+    @Test
+    void plan_OrdersFiltersBySelectivityAndVerifiesInstructionsLast() {
+        SearchPlan plan = planner.plan(criteria(true, 2, "cook", List.of("rice"), null), store);
+
+        assertEquals(SearchPlan.AccessPath.FULL_SCAN, plan.accessPath());
+        assertEquals(List.of(SearchPlan.Step.SERVINGS, SearchPlan.Step.VEGETARIAN,
+                SearchPlan.Step.INCLUDE_INGREDIENTS, SearchPlan.Step.INSTRUCTIONS), plan.steps());
+        assertEquals(Math.round(100 * 0.5 * 0.9 * 1.0 * SearchPlanner.INSTRUCTIONS_SELECTIVITY), plan.estimatedRows());
+    }
+
+    @Test
+    void plan_ForDatabaseKeepsIncludeAsFirstPredicate() {
+        SearchPlan plan = planner.plan(criteria(null, 4, null, List.of("saffron"), null), store).forDatabase();
+
+        assertEquals(SearchPlan.AccessPath.DATABASE, plan.accessPath());
+        assertEquals(List.of(SearchPlan.Step.INCLUDE_INGREDIENTS, SearchPlan.Step.SERVINGS), plan.steps());
+    }
+
+    @Test
+    void search_PostingsAndFullScanAgree() {
+        ColumnarRecipeStore.Result result = store.search(criteria(null, null, null, List.of("saffron"), null), null);
+
+        assertEquals(SearchPlan.AccessPath.INGREDIENT_POSTINGS, result.plan().accessPath());
+        assertEquals(List.of(50L, 100L), result.recipes().stream().map(Recipe::getId).toList());
+    }
+
+    private static RecipeSearchCriteria criteria(Boolean vegetarian, Integer servings, String instructions,
+                                                 List<String> include, List<String> exclude) {
+        return RecipeSearchCriteria.of(vegetarian, servings, instructions, include, exclude);
+    }
+}
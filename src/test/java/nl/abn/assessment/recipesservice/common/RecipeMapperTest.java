@@ -1,5 +1,8 @@
 package nl.abn.assessment.recipesservice.common;
 
+import nl.abn.assessment.recipesservice.model.Recipe;
+import nl.abn.assessment.recipesservice.model.RecipeDto;
+import nl.abn.assessment.recipesservice.model.RecipeRow;
 import org.junit.jupiter.api.Test;
 
 import java.util.Collections;
@@ -46,4 +49,41 @@ class RecipeMapperTest {
         assertNotNull(result);
         assertEquals("flour, sugar, eggs", result);
     }
-}
\ No newline at end of file
+
+    @Test
+    void toDto_RecipeRow_MapsAllFields() {
+        RecipeDto result = mapper.toDto(new RecipeRow(1L, "Pasta", true, 4, "pasta, cheese", "Cook pasta", 7L));
+        assertEquals(1L, result.getId());
+        assertEquals("Pasta", result.getName());
+        assertTrue(result.getVegetarian());
+        assertEquals(4, result.getServings());
+        assertEquals(List.of("pasta", "cheese"), result.getIngredients());
+        assertEquals("Cook pasta", result.getInstructions());
+        assertEquals(7L, result.getVersion());
+    }
+
+    @Test
+    void updateEntity_KeepsIdAndVersion() {
+        Recipe recipe = new Recipe(1L, "Pasta", true, 4, "pasta", "Cook pasta", 3L);
+        RecipeDto recipeDto = new RecipeDto();
+        recipeDto.setId(9L);
+        recipeDto.setName("Penne");
+        recipeDto.setVegetarian(false);
+        recipeDto.setServings(2);
+        recipeDto.setIngredients(List.of("penne", "pesto"));
+        recipeDto.setInstructions("Boil penne");
+        recipeDto.setVersion(8L);
+
+        mapper.updateEntity(recipeDto, recipe);
+
+        assertEquals(new Recipe(1L, "Penne", false, 2, "penne, pesto", "Boil penne", 3L), recipe);
+    }
+
+    @Test
+    void toEntity_IgnoresVersion() {
+        RecipeDto recipeDto = new RecipeDto();
+        recipeDto.setVersion(8L);
+
+        assertNull(mapper.toEntity(recipeDto).getVersion());
+    }
+}
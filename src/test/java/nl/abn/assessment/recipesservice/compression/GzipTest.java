@@ -0,0 +1,20 @@
+package nl.abn.assessment.recipesservice.compression;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GzipTest {
+
+    @Test
+    void isAccepted_HonoursQualityValues() {
+        assertTrue(Gzip.isAccepted("gzip, deflate"));
+        assertTrue(Gzip.isAccepted("deflate;q=1.0, GZIP;q=0.5"));
+        assertTrue(Gzip.isAccepted("*"));
+        assertFalse(Gzip.isAccepted("gzip;q=0"));
+        assertFalse(Gzip.isAccepted("gzip; q=0.000, *"));
+        assertFalse(Gzip.isAccepted("*;q=0"));
+        assertFalse(Gzip.isAccepted("deflate, br"));
+        assertFalse(Gzip.isAccepted(null));
+    }
+}
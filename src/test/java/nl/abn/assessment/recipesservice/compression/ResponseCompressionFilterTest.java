@@ -0,0 +1,165 @@
+package nl.abn.assessment.recipesservice.compression;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCompressionFilterTest {
+
+    private static final String LARGE_BODY = "[" + "{\"name\":\"Pasta\"},".repeat(200) + "{}]";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ResponseCompressionFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new ResponseCompressionFilter(new RecipesServiceProperties(), meterRegistry);
+    }
+
+    @Test
+    void largeJsonResponse_IsGzipped() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("/recipes", "gzip, deflate"), response, chain(MediaType.APPLICATION_JSON_VALUE, LARGE_BODY));
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+        assertEquals(LARGE_BODY, gunzip(response.getContentAsByteArray()));
+        assertEquals(1, meterRegistry.get("recipes.compression.time").timer().count());
+        assertTrue(meterRegistry.get("recipes.compression.ratio").summary().mean() > 1.0);
+    }
+
+    @Test
+    void smallResponse_IsSentUncompressed() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("/recipe/1", "gzip"), response, chain(MediaType.APPLICATION_JSON_VALUE, "{\"id\":1}"));
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("{\"id\":1}", response.getContentAsString());
+    }
+
+    @Test
+    void disabledContentType_IsSentUncompressed() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("/recipes", "gzip"), response, chain("application/cbor", LARGE_BODY));
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(LARGE_BODY, response.getContentAsString());
+    }
+
+    @Test
+    void clientWithoutGzip_IsSentUncompressed() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("/recipes", null), response, chain(MediaType.APPLICATION_JSON_VALUE, LARGE_BODY));
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+        assertEquals(LARGE_BODY, response.getContentAsString());
+    }
+
+    @Test
+    void clientAcceptingOnlyDisabledContentType_IsNotBuffered() throws Exception {
+        MockHttpServletRequest request = request("/recipes", "gzip");
+        request.addHeader(HttpHeaders.ACCEPT, "application/cbor");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                assertFalse(resp instanceof ContentCachingResponseWrapper);
+                resp.setContentType("application/cbor");
+                resp.getOutputStream().write(LARGE_BODY.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+
+        filter.doFilter(request, response, chain);
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+        assertEquals(LARGE_BODY, response.getContentAsString());
+    }
+
+    @Test
+    void otherPath_IsLeftAlone() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("/actuator/health", "gzip"), response, chain(MediaType.APPLICATION_JSON_VALUE, LARGE_BODY));
+
+        assertNull(response.getHeader(HttpHeaders.VARY));
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void clientRefusingGzipWithZeroQuality_IsSentUncompressed() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("/recipes", "gzip;q=0, identity"), response, chain(MediaType.APPLICATION_JSON_VALUE, LARGE_BODY));
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(LARGE_BODY, response.getContentAsString());
+    }
+
+    @Test
+    void precompressedResponse_IsPassedThrough() throws Exception {
+        byte[] gzip = Gzip.compress(LARGE_BODY.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                resp.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                resp.getOutputStream().write(gzip);
+            }
+        });
+
+        filter.doFilter(request("/recipe/1", "gzip"), response, chain);
+
+        assertArrayEquals(gzip, response.getContentAsByteArray());
+        assertEquals(1.0, meterRegistry.get("recipes.compression.precompressed").counter().count());
+        assertTrue(meterRegistry.find("recipes.compression.time").timers().isEmpty());
+    }
+
+    private static MockHttpServletRequest request(String uri, String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return request;
+    }
+
+    private static MockFilterChain chain(String contentType, String body) {
+        return new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.setContentType(contentType);
+                resp.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
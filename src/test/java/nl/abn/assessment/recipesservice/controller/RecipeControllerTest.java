@@ -1,6 +1,9 @@
 package nl.abn.assessment.recipesservice.controller;
 
+import nl.abn.assessment.recipesservice.catalog.SearchPlan;
+import nl.abn.assessment.recipesservice.model.DeleteRecipeResponse;
 import nl.abn.assessment.recipesservice.model.RecipeDto;
+import nl.abn.assessment.recipesservice.service.RecipeSearchResult;
 import nl.abn.assessment.recipesservice.service.RecipeService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -74,11 +77,11 @@ class RecipeControllerTest {
     void deleteRecipeById_ValidId_ReturnsSuccessMessage() {
         Long id = 1L;
 
-        ResponseEntity<String> response = recipeController.deleteRecipeById(id);
+        ResponseEntity<DeleteRecipeResponse> response = recipeController.deleteRecipeById(id);
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals("{ \"message\": \"Recipe deleted successfully\" }", response.getBody());
+        assertEquals("Recipe deleted successfully", response.getBody().getMessage());
         verify(recipeService, times(1)).deleteRecipeById(id);
     }
 
@@ -92,11 +95,37 @@ class RecipeControllerTest {
         List<RecipeDto> recipes = List.of(new RecipeDto());
         when(recipeService.searchRecipes(anyBoolean(), anyInt(), anyString(), anyList(), anyList())).thenReturn(recipes);
 
-        ResponseEntity<List<RecipeDto>> response = recipeController.searchRecipes(vegetarian, servings, includeIngredients, excludeIngredients, instructions);
+        ResponseEntity<List<RecipeDto>> response = recipeController.searchRecipes(vegetarian, servings, includeIngredients, excludeIngredients, instructions, null, null);
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(recipes, response.getBody());
         verify(recipeService, times(1)).searchRecipes(anyBoolean(), anyInt(), anyString(), anyList(), anyList());
     }
-}
\ No newline at end of file
+
+    @Test
+    void searchRecipes_Explain_ReturnsPlanHeader() {
+        List<RecipeDto> recipes = List.of(new RecipeDto());
+        SearchPlan plan = new SearchPlan(SearchPlan.AccessPath.DATABASE, List.of(SearchPlan.Step.VEGETARIAN), SearchPlan.UNKNOWN_ROWS);
+        when(recipeService.explainSearch(true, null, null, null, null)).thenReturn(new RecipeSearchResult(recipes, plan));
+
+        ResponseEntity<List<RecipeDto>> response = recipeController.searchRecipes(true, null, null, null, null, null, true);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(recipes, response.getBody());
+        assertEquals("access=DATABASE steps=[VEGETARIAN] estimatedRows=unknown actualRows=1", response.getHeaders().getFirst("X-Search-Plan"));
+        verify(recipeService, never()).searchRecipes(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void searchRecipes_Query_ReturnsRankedRecipes() {
+        List<RecipeDto> recipes = List.of(new RecipeDto());
+        when(recipeService.rankedSearch("tomato soup", true, null, null, null, null)).thenReturn(recipes);
+
+        ResponseEntity<List<RecipeDto>> response = recipeController.searchRecipes(true, null, null, null, null, "tomato soup", null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(recipes, response.getBody());
+        verify(recipeService, never()).searchRecipes(any(), any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,22 @@
+package nl.abn.assessment.recipesservice.exception.handler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LogRateLimiterTest {
+
+    @Test
+    void tryAcquire_PermitsOncePerIntervalAndReportsSuppressed() throws InterruptedException {
+        LogRateLimiter limiter = new LogRateLimiter(TimeUnit.MILLISECONDS.toNanos(50));
+
+        assertEquals(0, limiter.tryAcquire());
+        assertEquals(-1, limiter.tryAcquire());
+        assertEquals(-1, limiter.tryAcquire());
+
+        Thread.sleep(60);
+        assertEquals(2, limiter.tryAcquire());
+    }
+}
@@ -1,9 +1,14 @@
 package nl.abn.assessment.recipesservice.exception.handler;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nl.abn.assessment.recipesservice.exception.RateLimitExceededException;
+import nl.abn.assessment.recipesservice.exception.RecipeConflictException;
 import nl.abn.assessment.recipesservice.exception.RecipeNotFoundException;
 import nl.abn.assessment.recipesservice.model.ErrorResponse;
 import org.apache.coyote.BadRequestException;
 import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -14,12 +19,18 @@ import jakarta.validation.ConstraintViolationException;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 class RecipeServiceExceptionHandlerTest {
 
-    private final RecipeServiceExceptionHandler handler = new RecipeServiceExceptionHandler();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final RecipeServiceExceptionHandler handler = new RecipeServiceExceptionHandler(meterRegistry);
 
     @Test
     void handleMethodArgumentNotValidException_returnsBadRequest() {
@@ -72,6 +83,67 @@ class RecipeServiceExceptionHandlerTest {
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
+    @Test
+    void handleRecipeNotFoundException_namesTheIdAndCountsMisses() {
+        ResponseEntity<ErrorResponse> first = handler.handleRecipeNotFoundException(new RecipeNotFoundException(1L));
+        ResponseEntity<ErrorResponse> second = handler.handleRecipeNotFoundException(new RecipeNotFoundException(2L));
+
+        assertNotSame(first.getBody(), second.getBody());
+        assertEquals(404, first.getBody().getStatus());
+        assertEquals("Recipe not found with id: 1", first.getBody().getDetailedMessage());
+        assertEquals("Recipe not found with id: 2", second.getBody().getDetailedMessage());
+        assertEquals(2.0, meterRegistry.get("recipes.errors").tag("type", "RecipeNotFoundException").counter().count());
+    }
+
+    @Test
+    void recipeNotFoundException_isStacklessWithLazyMessage() {
+        RecipeNotFoundException ex = new RecipeNotFoundException(42L);
+
+        assertEquals(0, ex.getStackTrace().length);
+        assertNull(ex.getCause());
+        assertEquals("Recipe not found with id: 42", ex.getMessage());
+    }
+
+    @Test
+    void handleRecipeConflictException_returnsConflict() {
+        ResponseEntity<ErrorResponse> response = handler.handleRecipeConflictException(new RecipeConflictException(1L, 2L, 3L));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("Recipe 1 is at version 3, not 2", response.getBody().getDetailedMessage());
+    }
+
+    @Test
+    void handleOptimisticLockingFailureException_returnsConflict() {
+        ResponseEntity<ErrorResponse> response = handler.handleOptimisticLockingFailureException(
+                new ObjectOptimisticLockingFailureException("Recipe", 1L));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(409, response.getBody().getStatus());
+        assertSame(response.getBody(), handler.handleOptimisticLockingFailureException(
+                new ObjectOptimisticLockingFailureException("Recipe", 2L)).getBody());
+        assertThrows(UnsupportedOperationException.class, () -> response.getBody().setStatus(500));
+    }
+
+    @Test
+    void errorCounter_IsRegisteredOncePerTypeAndStatus() {
+        handler.handleBadRequestException(new BadRequestException("first"));
+        handler.handleBadRequestException(new BadRequestException("second"));
+
+        assertEquals(1, meterRegistry.find("recipes.errors").tag("type", "BadRequestException").counters().size());
+        assertEquals(2.0, meterRegistry.get("recipes.errors").tag("type", "BadRequestException").counter().count());
+    }
+
+    @Test
+    void handleRateLimitExceededException_returnsTooManyRequestsWithRetryAfter() {
+        ResponseEntity<ErrorResponse> response = handler.handleRateLimitExceededException(
+                new RateLimitExceededException("Rate limit exceeded for searchRecipes", 3));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("3", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(429, response.getBody().getStatus());
+        assertEquals(1.0, meterRegistry.get("recipes.errors").tag("type", "RateLimitExceededException").counter().count());
+    }
+
     @Test
     void handleException_returnsInternalServerError() {
         Exception ex = mock(Exception.class);
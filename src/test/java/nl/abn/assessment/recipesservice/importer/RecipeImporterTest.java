@@ -0,0 +1,138 @@
+package nl.abn.assessment.recipesservice.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import nl.abn.assessment.recipesservice.model.Recipe;
+import nl.abn.assessment.recipesservice.service.RecipeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class RecipeImporterTest {
+
+    private static final String PASTA = "{\"name\":\"Pasta\",\"vegetarian\":true,\"servings\":2,\"ingredients\":[\"pasta\",\"tomato\"],\"instructions\":\"Boil pasta\"}";
+
+    private final RecipeService recipeService = mock(RecipeService.class);
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private final List<List<Recipe>> batches = new ArrayList<>();
+
+    private RecipeImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        RecipesServiceProperties properties = new RecipesServiceProperties();
+        properties.getImporter().setBatchSize(2);
+        properties.getImporter().setQueueCapacity(1);
+        properties.getImporter().setMaxReportedErrors(1);
+        when(recipeService.addRecipes(anyList())).thenAnswer(invocation -> {
+            List<Recipe> batch = invocation.getArgument(0);
+            batches.add(batch);
+            return batch.size();
+        });
+        importer = new RecipeImporter(recipeService, new ObjectMapper(), validator, properties);
+    }
+
+    @Test
+    void importRecipes_Ndjson_PersistsValidLinesInBatchesAndReportsErrors() throws IOException {
+        String input = String.join("\n",
+                PASTA,
+                PASTA.replace("\"Pasta\"", "\"Penne\"").replace("\"servings\":2", "\"id\":99,\"servings\":2"),
+                "",
+                PASTA.replace("\"servings\":2", "\"servings\":0"),
+                "{not json",
+                PASTA.replace("\"Pasta\"", "\"Fusilli\""));
+
+        ImportReport report = importer.importRecipes(new StringReader(input), RecipeImportFormat.NDJSON);
+
+        assertEquals(6, report.lines());
+        assertEquals(3, report.imported());
+        assertEquals(2, report.rejected());
+        assertEquals(1, report.errors().size());
+        assertEquals(4, report.errors().getFirst().line());
+        assertTrue(report.errors().getFirst().message().startsWith("servings "));
+        assertTrue(report.errorsTruncated());
+        assertNull(report.failure());
+        assertEquals(List.of(2, 1), batches.stream().map(List::size).toList());
+        assertNull(batches.getFirst().get(1).getId());
+        assertEquals("pasta, tomato", batches.getFirst().getFirst().getIngredients());
+    }
+
+    @Test
+    void importRecipes_Csv_MapsColumnsByHeader() throws IOException {
+        String input = String.join("\n",
+                "servings,name,vegetarian,instructions,ingredients",
+                "4,\"Soup, tomato\",yes,Cook it slowly,tomato|water",
+                "1,Steak,false,\"Sear the \"\"steak\"\"\",steak");
+
+        ImportReport report = importer.importRecipes(new StringReader(input), RecipeImportFormat.CSV);
+
+        assertEquals(2, report.imported());
+        Recipe soup = batches.getFirst().getFirst();
+        assertEquals("Soup, tomato", soup.getName());
+        assertTrue(soup.isVegetarian());
+        assertEquals(4, soup.getServings());
+        assertEquals("tomato, water", soup.getIngredients());
+        assertEquals("Sear the \"steak\"", batches.getFirst().get(1).getInstructions());
+    }
+
+    @Test
+    void importRecipes_FailedBatch_StopsAndReportsFailure() throws IOException {
+        when(recipeService.addRecipes(anyList())).thenThrow(new IllegalStateException("database down"));
+        String input = String.join("\n", Collections.nCopies(50, PASTA));
+
+        ImportReport report = importer.importRecipes(new StringReader(input), RecipeImportFormat.NDJSON);
+
+        assertEquals(0, report.imported());
+        assertTrue(report.failure().contains("database down"));
+        assertTrue(report.lines() < 50, "reader should stop early, read " + report.lines());
+    }
+
+    @Test
+    void importRecipes_ReaderFailsMidStream_KeepsWhatWasReadAndStopsWriter() throws IOException {
+        Reader aborted = new Reader() {
+            private final Reader lines = new StringReader(String.join("\n", Collections.nCopies(3, PASTA)) + "\n");
+
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                int read = lines.read(buffer, offset, length);
+                if (read < 0) {
+                    throw new IOException("connection reset");
+                }
+                return read;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        List<Thread> writers = new ArrayList<>();
+        doAnswer(invocation -> {
+            writers.add(Thread.currentThread());
+            List<Recipe> batch = invocation.getArgument(0);
+            batches.add(batch);
+            return batch.size();
+        }).when(recipeService).addRecipes(anyList());
+
+        ImportReport report = importer.importRecipes(aborted, RecipeImportFormat.NDJSON);
+
+        assertEquals(3, report.imported());
+        assertTrue(report.failure().contains("connection reset"), report.failure());
+        assertEquals(List.of(2, 1), batches.stream().map(List::size).toList());
+        assertFalse(writers.getFirst().isAlive());
+    }
+}
@@ -0,0 +1,114 @@
+package nl.abn.assessment.recipesservice.integration;
+
+import nl.abn.assessment.recipesservice.RecipesServiceApplication;
+import nl.abn.assessment.recipesservice.cache.RecipeJsonCache;
+import nl.abn.assessment.recipesservice.catalog.RecipeCatalog;
+import nl.abn.assessment.recipesservice.exception.RecipeNotFoundException;
+import nl.abn.assessment.recipesservice.model.RecipeDto;
+import nl.abn.assessment.recipesservice.service.RecipeService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two instances of the service on one shared database: writes on one must become visible in the caches of the other.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class CacheCoherenceIT {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private ConfigurableApplicationContext writer;
+
+    private ConfigurableApplicationContext reader;
+
+    @BeforeAll
+    void startInstances() {
+        writer = start("always");
+        reader = start("never");
+    }
+
+    @AfterAll
+    void stopInstances() {
+        reader.close();
+        writer.close();
+    }
+
+    @Test
+    void updateOnOneInstance_RefreshesCachesOfTheOther() {
+        RecipeJsonCache readerCache = reader.getBean(RecipeJsonCache.class);
+        RecipeCatalog readerCatalog = reader.getBean(RecipeCatalog.class);
+        assertTrue(json(readerCache.get(1L)).contains("\"Pasta\""));
+
+        RecipeDto update = writer.getBean(RecipeService.class).getRecipeById(1L);
+        update.setName("Pasta al forno");
+        writer.getBean(RecipeService.class).updateRecipeById(1L, update);
+
+        await(() -> json(readerCache.get(1L)).contains("Pasta al forno"));
+        await(() -> "Pasta al forno".equals(readerCatalog.get(1L).getName()));
+    }
+
+    @Test
+    void deleteOnOneInstance_RemovesRecipeFromTheOther() {
+        RecipeJsonCache readerCache = reader.getBean(RecipeJsonCache.class);
+        RecipeService readerService = reader.getBean(RecipeService.class);
+        readerCache.get(2L);
+        assertTrue(ids(readerService).contains(2L));
+
+        writer.getBean(RecipeService.class).deleteRecipeById(2L);
+
+        await(() -> !ids(readerService).contains(2L));
+        await(() -> {
+            try {
+                readerCache.get(2L);
+                return false;
+            } catch (RecipeNotFoundException e) {
+                return true;
+            }
+        });
+    }
+
+    private static ConfigurableApplicationContext start(String sqlInitMode) {
+        return new SpringApplicationBuilder(RecipesServiceApplication.class)
+                .profiles("test")
+                // Arguments, unlike default properties, override application-test.yml.
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:coherence;DB_CLOSE_DELAY=-1",
+                        "--spring.sql.init.mode=" + sqlInitMode,
+                        "--recipes.catalog.enabled=true",
+                        "--recipes.catalog.snapshot.enabled=false",
+                        "--recipes.invalidation.poll-interval=PT0.1S");
+    }
+
+    private static List<Long> ids(RecipeService recipeService) {
+        return recipeService.searchRecipes(null, null, null, null, null).stream().map(RecipeDto::getId).toList();
+    }
+
+    private static String json(RecipeJsonCache.EncodedRecipe recipe) {
+        return new String(recipe.json(), StandardCharsets.UTF_8);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within " + TIMEOUT);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package nl.abn.assessment.recipesservice.integration;
+
+import nl.abn.assessment.recipesservice.RecipesServiceApplication;
+import nl.abn.assessment.recipesservice.exception.RecipeConflictException;
+import nl.abn.assessment.recipesservice.model.RecipeDto;
+import nl.abn.assessment.recipesservice.service.RecipeService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Many virtual threads incrementing the servings of a few hot recipes: every increment must survive, and contention
+ * may only cost retries, never blocked writers.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class OptimisticLockingIT {
+
+    private static final int THREADS = 32;
+
+    private static final int INCREMENTS_PER_THREAD = 20;
+
+    private static final int HOT_RECIPES = 4;
+
+    private ConfigurableApplicationContext context;
+
+    private RecipeService recipeService;
+
+    @BeforeAll
+    void start() {
+        context = new SpringApplicationBuilder(RecipesServiceApplication.class)
+                .profiles("test")
+                // Arguments, unlike default properties, override application-test.yml.
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:locking;DB_CLOSE_DELAY=-1",
+                        "--recipes.catalog.enabled=false");
+        recipeService = context.getBean(RecipeService.class);
+    }
+
+    @AfterAll
+    void stop() {
+        context.close();
+    }
+
+    @Test
+    void concurrentIncrementsOnHotRecipes_LoseNoUpdates() throws Exception {
+        List<Long> hot = createRecipes(HOT_RECIPES);
+        List<Long> cold = createRecipes(THREADS);
+
+        long uncontended = run(thread -> cold.get(thread), new AtomicLong());
+        AtomicLong conflicts = new AtomicLong();
+        long contended = run(thread -> hot.get(thread % HOT_RECIPES), conflicts);
+
+        int perHotRecipe = THREADS / HOT_RECIPES * INCREMENTS_PER_THREAD;
+        for (Long id : hot) {
+            RecipeDto recipe = recipeService.getRecipeById(id);
+            assertEquals(1 + perHotRecipe, recipe.getServings());
+            assertEquals(perHotRecipe, recipe.getVersion());
+        }
+        for (Long id : cold) {
+            assertEquals(1 + INCREMENTS_PER_THREAD, recipeService.getRecipeById(id).getServings());
+        }
+
+        // Writers retry instead of queueing on row locks, so contention costs at most one retry per competing writer.
+        int writersPerRecipe = THREADS / HOT_RECIPES;
+        assertTrue(conflicts.get() <= (long) THREADS * INCREMENTS_PER_THREAD * (writersPerRecipe - 1),
+                "conflicts: " + conflicts.get());
+        assertTrue(contended <= uncontended * writersPerRecipe + 2_000_000_000L,
+                "contended " + contended / 1_000_000 + "ms vs uncontended " + uncontended / 1_000_000 + "ms");
+    }
+
+    private List<Long> createRecipes(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            RecipeDto recipe = new RecipeDto();
+            recipe.setName("Hot pot " + i);
+            recipe.setVegetarian(true);
+            recipe.setServings(1);
+            recipe.setIngredients(List.of("broth", "tofu"));
+            recipe.setInstructions("Simmer everything in the broth");
+            ids.add(recipeService.addRecipe(recipe).getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Runs {@link #INCREMENTS_PER_THREAD} read-modify-write increments on each thread's recipe and returns the elapsed
+     * nanos.
+     */
+    private long run(IntFunction<Long> recipeOfThread, AtomicLong conflicts) throws Exception {
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                Long id = recipeOfThread.apply(thread);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+                        increment(id, conflicts);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void increment(Long id, AtomicLong conflicts) {
+        while (true) {
+            RecipeDto recipe = recipeService.getRecipeById(id);
+            recipe.setServings(recipe.getServings() + 1);
+            try {
+                recipeService.updateRecipeById(id, recipe);
+                return;
+            } catch (RecipeConflictException | OptimisticLockingFailureException e) {
+                conflicts.incrementAndGet();
+            }
+        }
+    }
+}
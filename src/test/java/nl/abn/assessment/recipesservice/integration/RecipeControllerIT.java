@@ -1,16 +1,21 @@
 package nl.abn.assessment.recipesservice.integration;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import nl.abn.assessment.recipesservice.model.RecipeDto;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
 
+import java.io.IOException;
+
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
 
 @SpringBootTest(webEnvironment = RANDOM_PORT)
@@ -144,6 +149,34 @@ public class RecipeControllerIT extends IntegrationTestConfig {
                 .body("ingredients.size()", equalTo(3));
     }
 
+    @Test
+    void getRecipeById_smileAccepted_returnsSmile() {
+        given()
+                .auth()
+                .preemptive()
+                .basic("user", "userpass")
+                .accept("application/x-jackson-smile")
+                .when()
+                .get("/recipe/1")
+                .then()
+                .statusCode(200)
+                .contentType("application/x-jackson-smile");
+    }
+
+    @Test
+    void getRecipeById_cborAccepted_notFoundReturnsCbor() {
+        given()
+                .auth()
+                .preemptive()
+                .basic("user", "userpass")
+                .accept("application/cbor")
+                .when()
+                .get("/recipe/999")
+                .then()
+                .statusCode(404)
+                .contentType("application/cbor");
+    }
+
     @Test
     void getRecipeById_notFound() {
         given()
@@ -219,6 +252,23 @@ public class RecipeControllerIT extends IntegrationTestConfig {
                 .body("message", equalTo("Recipe deleted successfully"));
     }
 
+    @Test
+    void deleteRecipeById_cborAccepted_returnsCborMessage() throws IOException {
+        byte[] body = given()
+                .auth()
+                .preemptive()
+                .basic("user", "userpass")
+                .accept("application/cbor")
+                .when()
+                .delete("/recipe/999")
+                .then()
+                .statusCode(200)
+                .contentType("application/cbor")
+                .extract().asByteArray();
+
+        assertEquals("Recipe deleted successfully", new ObjectMapper(new CBORFactory()).readTree(body).get("message").asText());
+    }
+
     @Test
     void searchRecipes_success() {
         given()
@@ -242,6 +292,37 @@ public class RecipeControllerIT extends IntegrationTestConfig {
                 .body("[0].servings", equalTo(4));
     }
 
+    @Test
+    void searchRecipes_partialWords_matchAsSubstrings() {
+        given()
+                .auth()
+                .preemptive()
+                .basic("user", "userpass")
+                .queryParam("servings", 4)
+                .queryParam("includeIngredients", "tom")
+                .queryParam("instructions", "ook pas")
+                .when()
+                .get("/recipes")
+                .then()
+                .statusCode(200)
+                .body("size()", greaterThan(0))
+                .body("[0].name", equalTo("Pasta"));
+    }
+
+    @Test
+    void searchRecipes_stopWordOnly_matchesOnlyRecipesContainingIt() {
+        given()
+                .auth()
+                .preemptive()
+                .basic("user", "userpass")
+                .queryParam("includeIngredients", "the")
+                .when()
+                .get("/recipes")
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(0));
+    }
+
     @Test
     void searchRecipes_invalidVegetarianParam_returnsBadRequest() {
         given()
@@ -0,0 +1,104 @@
+package nl.abn.assessment.recipesservice.invalidation;
+
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import nl.abn.assessment.recipesservice.model.RecipeChange;
+import nl.abn.assessment.recipesservice.repository.RecipeChangeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class JdbcPollingInvalidationBusTest {
+
+    private final RecipeChangeRepository recipeChangeRepository = mock(RecipeChangeRepository.class);
+
+    private final List<RecipeInvalidation> received = new ArrayList<>();
+
+    private final RecipesServiceProperties properties = new RecipesServiceProperties();
+
+    private JdbcPollingInvalidationBus bus;
+
+    @BeforeEach
+    void setUp() {
+        properties.getInvalidation().setBatchSize(2);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("listener", (InvalidationListener) received::add);
+        when(recipeChangeRepository.findLatestSeq()).thenReturn(10L);
+        bus = new JdbcPollingInvalidationBus(recipeChangeRepository, beanFactory.getBeanProvider(InvalidationListener.class), properties);
+    }
+
+    @Test
+    void poll_StartsAfterLatestChangeAndDeliversInBatches() {
+        when(recipeChangeRepository.findBySeqGreaterThanOrderBySeqAsc(eq(10L), any(Limit.class)))
+                .thenReturn(List.of(change(11, 1L, RecipeChange.Operation.UPDATED), change(12, 2L, RecipeChange.Operation.CREATED)));
+        when(recipeChangeRepository.findBySeqGreaterThanOrderBySeqAsc(eq(12L), any(Limit.class)))
+                .thenReturn(List.of(change(13, 1L, RecipeChange.Operation.DELETED)));
+
+        bus.poll();
+
+        assertEquals(List.of(new RecipeInvalidation(1L, 11, false), new RecipeInvalidation(2L, 12, false),
+                new RecipeInvalidation(1L, 13, true)), received);
+        assertEquals(13, bus.getLastSeq());
+    }
+
+    @Test
+    void poll_NothingNew_DeliversNothing() {
+        when(recipeChangeRepository.findBySeqGreaterThanOrderBySeqAsc(eq(10L), any(Limit.class))).thenReturn(List.of());
+
+        bus.poll();
+
+        assertTrue(received.isEmpty());
+        assertEquals(10, bus.getLastSeq());
+    }
+
+    @Test
+    void poll_ChangeCommittedAfterHigherOne_IsDeliveredOnceItShowsUp() {
+        when(recipeChangeRepository.findBySeqGreaterThanOrderBySeqAsc(eq(10L), any(Limit.class)))
+                .thenReturn(List.of(change(12, 2L, RecipeChange.Operation.UPDATED)));
+        when(recipeChangeRepository.findBySeqGreaterThanOrderBySeqAsc(eq(12L), any(Limit.class))).thenReturn(List.of());
+        when(recipeChangeRepository.findBySeqInOrderBySeqAsc(Set.of(11L)))
+                .thenReturn(List.of(change(11, 1L, RecipeChange.Operation.UPDATED)));
+
+        bus.poll();
+
+        assertEquals(Set.of(11L), bus.getOpenGaps());
+        assertEquals(List.of(new RecipeInvalidation(2L, 12, false)), received);
+
+        bus.poll();
+
+        assertEquals(Set.of(), bus.getOpenGaps());
+        assertEquals(List.of(new RecipeInvalidation(2L, 12, false), new RecipeInvalidation(1L, 11, false)), received);
+        assertEquals(12, bus.getLastSeq());
+    }
+
+    @Test
+    void poll_GapThatNeverFills_IsDroppedAfterTimeout() {
+        properties.getInvalidation().setGapTimeout(Duration.ZERO);
+        bus = new JdbcPollingInvalidationBus(recipeChangeRepository, new StaticListableBeanFactory().getBeanProvider(InvalidationListener.class), properties);
+        when(recipeChangeRepository.findBySeqGreaterThanOrderBySeqAsc(eq(10L), any(Limit.class)))
+                .thenReturn(List.of(change(12, 2L, RecipeChange.Operation.UPDATED)));
+        when(recipeChangeRepository.findBySeqGreaterThanOrderBySeqAsc(eq(12L), any(Limit.class))).thenReturn(List.of());
+        when(recipeChangeRepository.findBySeqInOrderBySeqAsc(any())).thenReturn(List.of());
+
+        bus.poll();
+        bus.poll();
+
+        assertEquals(Set.of(), bus.getOpenGaps());
+        verify(recipeChangeRepository).findBySeqInOrderBySeqAsc(Set.of(11L));
+    }
+
+    private static RecipeChange change(long seq, Long recipeId, RecipeChange.Operation operation) {
+        return new RecipeChange(seq, recipeId, operation, Instant.now());
+    }
+}
@@ -0,0 +1,29 @@
+package nl.abn.assessment.recipesservice.invalidation;
+
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import nl.abn.assessment.recipesservice.repository.RecipeChangeRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.mockito.Mockito.*;
+
+class RecipeChangeRetentionTest {
+
+    private final RecipeChangeRepository recipeChangeRepository = mock(RecipeChangeRepository.class);
+
+    @Test
+    void prune_DeletesRowsOlderThanRetentionButKeepsTheNewest() {
+        RecipesServiceProperties properties = new RecipesServiceProperties();
+        properties.getInvalidation().setRetention(Duration.ofDays(2));
+        Instant now = Instant.parse("2026-03-10T12:00:00Z");
+        when(recipeChangeRepository.findLatestSeq()).thenReturn(420L);
+
+        new RecipeChangeRetention(recipeChangeRepository, properties, Clock.fixed(now, ZoneOffset.UTC)).prune();
+
+        verify(recipeChangeRepository).deleteOlderThan(Instant.parse("2026-03-08T12:00:00Z"), 420L);
+    }
+}
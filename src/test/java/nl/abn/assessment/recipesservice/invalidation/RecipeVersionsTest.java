@@ -0,0 +1,20 @@
+package nl.abn.assessment.recipesservice.invalidation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeVersionsTest {
+
+    private final RecipeVersions versions = new RecipeVersions();
+
+    @Test
+    void advance_OnlyAcceptsNewerVersions() {
+        assertTrue(versions.advance(1L, 3));
+        assertFalse(versions.advance(1L, 3));
+        assertFalse(versions.advance(1L, 2));
+        assertTrue(versions.advance(1L, 4));
+        assertEquals(4, versions.current(1L));
+        assertEquals(0, versions.current(2L));
+    }
+}
@@ -0,0 +1,58 @@
+package nl.abn.assessment.recipesservice.logging;
+
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import nl.abn.assessment.recipesservice.controller.RecipeController;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class SampledRequestLogInterceptorTest {
+
+    private final RecipesServiceProperties properties = new RecipesServiceProperties();
+
+    private SampledRequestLogInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        properties.getRequestLog().setDefaultSampleRate(0.0);
+        properties.getRequestLog().getSampleRates().put("deleteRecipeById", 1.0);
+        interceptor = new SampledRequestLogInterceptor(properties);
+    }
+
+    @Test
+    void preHandle_FullySampledEndpoint_MarksRequest() throws NoSuchMethodException {
+        MockHttpServletRequest request = new MockHttpServletRequest("DELETE", "/recipe/1");
+
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), handler("deleteRecipeById", Long.class)));
+
+        assertInstanceOf(Long.class, request.getAttribute(SampledRequestLogInterceptor.START_ATTRIBUTE));
+    }
+
+    @Test
+    void preHandle_UnsampledEndpoint_LeavesRequestUntouched() throws NoSuchMethodException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/recipe/1");
+
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), handler("getRecipeById", Long.class)));
+
+        assertNull(request.getAttribute(SampledRequestLogInterceptor.START_ATTRIBUTE));
+    }
+
+    @Test
+    void preHandle_NonControllerHandler_IsIgnored() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/health");
+        properties.getRequestLog().setDefaultSampleRate(1.0);
+
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), new Object()));
+
+        assertNull(request.getAttribute(SampledRequestLogInterceptor.START_ATTRIBUTE));
+    }
+
+    private static HandlerMethod handler(String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+        return new HandlerMethod(mock(RecipeController.class), RecipeController.class.getMethod(name, parameterTypes));
+    }
+}
@@ -0,0 +1,71 @@
+package nl.abn.assessment.recipesservice.profiling;
+
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrMonitorTest {
+
+    @TempDir
+    Path dumpDirectory;
+
+    private JfrMonitor monitor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        RecipesServiceProperties properties = new RecipesServiceProperties();
+        properties.getJfr().setSlowOperationThreshold(Duration.ofMillis(10));
+        properties.getJfr().setDumpDirectory(dumpDirectory.toString());
+        monitor = new JfrMonitor(properties);
+        monitor.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitor.close();
+    }
+
+    @Test
+    void summary_ListsSlowOperationsOnly() throws Exception {
+        RecipeOperationEvent.start("searchRecipes").finish("fast", 3);
+        RecipeOperationEvent slow = RecipeOperationEvent.start("searchRecipes");
+        Thread.sleep(20);
+        slow.finish("vegetarian=true", 7);
+
+        List<JfrMonitor.Occurrence> slowOperations = awaitSlowOperations();
+
+        assertEquals(1, slowOperations.size());
+        assertEquals("searchRecipes vegetarian=true rows=7", slowOperations.get(0).what());
+        assertTrue(slowOperations.get(0).durationMillis() >= 20);
+    }
+
+    @Test
+    void dump_WritesRecordingFile() throws Exception {
+        Path file = monitor.dump();
+
+        assertEquals(dumpDirectory, file.getParent());
+        assertTrue(Files.size(file) > 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<JfrMonitor.Occurrence> awaitSlowOperations() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline) {
+            List<JfrMonitor.Occurrence> slowOperations = (List<JfrMonitor.Occurrence>) monitor.summary().get("slowOperations");
+            if (!slowOperations.isEmpty()) {
+                return slowOperations;
+            }
+            Thread.sleep(100);
+        }
+        return List.of();
+    }
+}
@@ -0,0 +1,110 @@
+package nl.abn.assessment.recipesservice.projection;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import nl.abn.assessment.recipesservice.model.Recipe;
+import nl.abn.assessment.recipesservice.model.RecipeSearchDocument;
+import nl.abn.assessment.recipesservice.model.RecipeSearchTerm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static nl.abn.assessment.recipesservice.model.RecipeSearchTerm.Field.INGREDIENT;
+import static nl.abn.assessment.recipesservice.model.RecipeSearchTerm.Field.INSTRUCTIONS;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RecipeSearchProjectionTest {
+
+    private final Recipe recipe = new Recipe(1L, "Pasta", true, 4, "Tomato sauce, salt and pepper, tomatoes", "Simmer the sauce", 2L);
+
+    private EntityManager entityManager;
+
+    private Query query;
+
+    private RecipeSearchProjection projection;
+
+    @BeforeEach
+    void setUp() {
+        entityManager = mock(EntityManager.class);
+        query = mock(Query.class);
+        when(entityManager.createQuery(anyString())).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        projection = new RecipeSearchProjection();
+        ReflectionTestUtils.setField(projection, "entityManager", entityManager);
+    }
+
+    @Test
+    void trigrams_AreLowercasedAndDistinct() {
+        assertEquals(List.of("tom", "oma", "mat", "ato"), List.copyOf(RecipeSearchProjection.trigrams("Tomato")));
+        assertEquals(List.of("aaa"), List.copyOf(RecipeSearchProjection.trigrams("aaaa")));
+        assertTrue(RecipeSearchProjection.trigrams("to").isEmpty());
+        assertTrue(RecipeSearchProjection.trigrams(null).isEmpty());
+    }
+
+    @Test
+    void terms_IndexTrigramsOfIngredientsAndInstructions() {
+        Recipe soup = new Recipe(1L, "Soup", true, 2, "Leek", "Stir", 0L);
+
+        assertEquals(List.of(
+                new RecipeSearchTerm(INGREDIENT, "lee", 1L),
+                new RecipeSearchTerm(INGREDIENT, "eek", 1L),
+                new RecipeSearchTerm(INSTRUCTIONS, "sti", 1L),
+                new RecipeSearchTerm(INSTRUCTIONS, "tir", 1L)), List.copyOf(RecipeSearchProjection.terms(soup)));
+    }
+
+    @Test
+    void put_ReplacesTermsAndDocument() {
+        projection.put(recipe);
+
+        verify(entityManager).createQuery("delete from RecipeSearchTerm t where t.recipeId = :recipeId");
+        verify(query).executeUpdate();
+        verify(entityManager).merge(new RecipeSearchDocument(1L, true, 4, 2L));
+        verify(entityManager, times(RecipeSearchProjection.terms(recipe).size())).persist(any(RecipeSearchTerm.class));
+    }
+
+    @Test
+    void remove_DeletesTermsAndDocument() {
+        projection.remove(1L);
+
+        verify(entityManager).createQuery("delete from RecipeSearchTerm t where t.recipeId = :recipeId");
+        verify(entityManager).createQuery("delete from RecipeSearchDocument d where d.recipeId = :recipeId");
+        verify(query, times(2)).executeUpdate();
+        verify(entityManager, never()).persist(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void catchUp_ProjectsNewRecipesUnderRowLockOnce() {
+        TypedQuery<Long> latest = mock(TypedQuery.class);
+        TypedQuery<Recipe> unprojected = mock(TypedQuery.class);
+        when(entityManager.createQuery(anyString(), eq(Long.class))).thenReturn(latest);
+        when(latest.getSingleResult()).thenReturn(1L);
+        when(entityManager.createQuery(anyString(), eq(Recipe.class))).thenReturn(unprojected);
+        when(unprojected.setParameter(anyString(), any())).thenReturn(unprojected);
+        when(unprojected.getResultList()).thenReturn(List.of(recipe));
+
+        projection.catchUp();
+        projection.catchUp();
+
+        verify(entityManager).refresh(recipe, LockModeType.PESSIMISTIC_WRITE);
+        verify(entityManager).merge(new RecipeSearchDocument(1L, true, 4, 2L));
+        verify(unprojected, times(1)).getResultList();
+    }
+
+    @Test
+    void markLoaded_SwitchesSearchesToProjection() {
+        assertFalse(projection.isLoaded());
+
+        projection.markLoaded(5L);
+
+        assertTrue(projection.isLoaded());
+    }
+}
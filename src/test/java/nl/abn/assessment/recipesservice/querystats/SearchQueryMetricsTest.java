@@ -0,0 +1,52 @@
+package nl.abn.assessment.recipesservice.querystats;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import nl.abn.assessment.recipesservice.service.RecipeSearchCriteria;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchQueryMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final SearchQueryMetrics metrics = new SearchQueryMetrics(meterRegistry, new RecipesServiceProperties());
+
+    private final SqlCapturingStatementInspector inspector = new SqlCapturingStatementInspector();
+
+    @Test
+    void shape_NamesSetFiltersWithoutValues() {
+        assertEquals("all", RecipeSearchCriteria.of(null, null, "", null, List.of()).shape());
+        assertEquals("vegetarian+include(3)+exclude(1)",
+                RecipeSearchCriteria.of(false, null, null, List.of("a", "b", "c"), List.of("d")).shape());
+        assertEquals("servings+instructions+include(5+)",
+                RecipeSearchCriteria.of(null, 4, "bake", List.of("a", "b", "c", "d", "e", "f"), null).shape());
+    }
+
+    @Test
+    void record_TimesAndCountsRowsPerShape() {
+        RecipeSearchCriteria criteria = RecipeSearchCriteria.of(true, null, null, List.of("flour"), null);
+
+        List<String> result = metrics.record(criteria, "database", () -> List.of("a", "b"), List::size);
+        metrics.record(criteria, "database", List::of, List::size);
+
+        assertEquals(List.of("a", "b"), result);
+        assertEquals(2, meterRegistry.get("recipes.search.query")
+                .tags("shape", "vegetarian+include(1)", "source", "database").timer().count());
+        assertEquals(2.0, meterRegistry.get("recipes.search.query.rows")
+                .tags("shape", "vegetarian+include(1)").summary().totalAmount());
+    }
+
+    @Test
+    void inspector_OnlyCapturesDuringMeasurement() {
+        String[] capture = SqlCapturingStatementInspector.startCapture();
+        assertEquals("select 1", inspector.inspect("select 1"));
+        SqlCapturingStatementInspector.stopCapture();
+        inspector.inspect("select 2");
+
+        assertEquals("select 1", capture[0]);
+    }
+}
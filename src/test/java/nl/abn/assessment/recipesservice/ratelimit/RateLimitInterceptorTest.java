@@ -0,0 +1,116 @@
+package nl.abn.assessment.recipesservice.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import nl.abn.assessment.recipesservice.controller.RecipeController;
+import nl.abn.assessment.recipesservice.exception.RateLimitExceededException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class RateLimitInterceptorTest {
+
+    private final RecipesServiceProperties properties = new RecipesServiceProperties();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private RateLimitInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        RecipesServiceProperties.RateLimit rateLimit = properties.getRateLimit();
+        rateLimit.getDefaults().setCapacity(10);
+        rateLimit.getDefaults().setRefillPerSecond(1);
+        rateLimit.getCosts().put("searchRecipes", 5L);
+        RecipesServiceProperties.Limit batch = new RecipesServiceProperties.Limit();
+        batch.setCapacity(5);
+        rateLimit.getPrincipals().put("batch", batch);
+        interceptor = new RateLimitInterceptor(properties, meterRegistry, clock::get);
+    }
+
+    @Test
+    void preHandle_ChargesOperationCostAndSetsHeaders() throws NoSuchMethodException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request("user"), response, searchRecipes()));
+
+        assertEquals("10", response.getHeader(RateLimitInterceptor.LIMIT_HEADER));
+        assertEquals("5", response.getHeader(RateLimitInterceptor.REMAINING_HEADER));
+        assertEquals("5", response.getHeader(RateLimitInterceptor.RESET_HEADER));
+
+        MockHttpServletResponse cheap = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(request("user"), cheap, getRecipeById()));
+        assertEquals("4", cheap.getHeader(RateLimitInterceptor.REMAINING_HEADER));
+    }
+
+    @Test
+    void preHandle_ExhaustedBucket_ThrowsWithRetryAfter() throws NoSuchMethodException {
+        interceptor.preHandle(request("user"), new MockHttpServletResponse(), searchRecipes());
+        interceptor.preHandle(request("user"), new MockHttpServletResponse(), searchRecipes());
+
+        RateLimitExceededException ex = assertThrows(RateLimitExceededException.class,
+                () -> interceptor.preHandle(request("user"), new MockHttpServletResponse(), getRecipeById()));
+
+        assertEquals(1, ex.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.get("recipes.ratelimit.requests")
+                .tags("operation", "getRecipeById", "outcome", "throttled").counter().count());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertTrue(interceptor.preHandle(request("user"), new MockHttpServletResponse(), getRecipeById()));
+    }
+
+    @Test
+    void preHandle_PrincipalsHaveSeparateBuckets() throws NoSuchMethodException {
+        interceptor.preHandle(request("batch"), new MockHttpServletResponse(), searchRecipes());
+        assertThrows(RateLimitExceededException.class,
+                () -> interceptor.preHandle(request("batch"), new MockHttpServletResponse(), getRecipeById()));
+
+        assertTrue(interceptor.preHandle(request("user"), new MockHttpServletResponse(), searchRecipes()));
+    }
+
+    @Test
+    void preHandle_NonControllerHandler_IsIgnored() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request("user"), response, new Object()));
+
+        assertNull(response.getHeader(RateLimitInterceptor.LIMIT_HEADER));
+    }
+
+    @Test
+    void evictIdleBuckets_DropsRefilledBuckets() throws NoSuchMethodException {
+        interceptor.preHandle(request("user"), new MockHttpServletResponse(), getRecipeById());
+        interceptor.preHandle(request("batch"), new MockHttpServletResponse(), searchRecipes());
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        interceptor.evictIdleBuckets();
+
+        assertEquals(1, interceptor.bucketCount());
+    }
+
+    private static MockHttpServletRequest request(String user) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/recipes");
+        request.setUserPrincipal(() -> user);
+        return request;
+    }
+
+    private static HandlerMethod searchRecipes() throws NoSuchMethodException {
+        return new HandlerMethod(mock(RecipeController.class), RecipeController.class.getMethod("searchRecipes",
+                Boolean.class, Integer.class, List.class, List.class, String.class, String.class, Boolean.class));
+    }
+
+    private static HandlerMethod getRecipeById() throws NoSuchMethodException {
+        return new HandlerMethod(mock(RecipeController.class), RecipeController.class.getMethod("getRecipeById", Long.class));
+    }
+}
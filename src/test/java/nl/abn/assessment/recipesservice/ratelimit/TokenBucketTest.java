@@ -0,0 +1,58 @@
+package nl.abn.assessment.recipesservice.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void tryConsume_AllowsBurstUpToCapacityThenRefills() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+        TokenBucket.Result first = bucket.tryConsume(4, 0);
+        assertTrue(first.allowed());
+        assertEquals(6, first.remaining());
+        assertTrue(bucket.tryConsume(6, 0).allowed());
+
+        TokenBucket.Result refused = bucket.tryConsume(1, 0);
+        assertFalse(refused.allowed());
+        assertEquals(0, refused.remaining());
+        assertEquals(SECOND / 5, refused.retryAfterNanos());
+        assertEquals(2 * SECOND, refused.resetNanos());
+
+        assertTrue(bucket.tryConsume(1, SECOND / 5).allowed());
+        assertFalse(bucket.isFull(SECOND));
+        assertTrue(bucket.isFull(3 * SECOND));
+        assertEquals(9, bucket.tryConsume(1, 3 * SECOND).remaining());
+    }
+
+    @Test
+    void tryConsume_CostAboveCapacityWaitsForFullBucket() {
+        TokenBucket bucket = new TokenBucket(10, 10, 0);
+
+        assertTrue(bucket.tryConsume(50, 0).allowed());
+        assertFalse(bucket.tryConsume(50, SECOND / 2).allowed());
+        assertTrue(bucket.tryConsume(50, SECOND).allowed());
+    }
+
+    @Test
+    void tryConsume_ConcurrentCallersNeverOverdraw() {
+        TokenBucket bucket = new TokenBucket(1_000, 1, 0);
+        AtomicInteger allowed = new AtomicInteger();
+
+        IntStream.range(0, 5_000).parallel().forEach(i -> {
+            if (bucket.tryConsume(1, 0).allowed()) {
+                allowed.incrementAndGet();
+            }
+        });
+
+        assertEquals(1_000, allowed.get());
+    }
+}
@@ -0,0 +1,53 @@
+package nl.abn.assessment.recipesservice.search;
+
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import nl.abn.assessment.recipesservice.invalidation.RecipeInvalidation;
+import nl.abn.assessment.recipesservice.model.Recipe;
+import nl.abn.assessment.recipesservice.repository.RecipeRepository;
+import nl.abn.assessment.recipesservice.sharding.ShardedRecipeStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RecipeTextIndexLoaderTest {
+
+    private final RecipeRepository recipeRepository = mock(RecipeRepository.class);
+
+    private final RecipeTextIndex index = new RecipeTextIndex(new RecipesServiceProperties());
+
+    private final RecipeTextIndexLoader loader = new RecipeTextIndexLoader(index, recipeRepository,
+            new StaticListableBeanFactory().getBeanProvider(ShardedRecipeStore.class));
+
+    @Test
+    void onInvalidation_LoadsOutsideTheMonitorAndIgnoresStaleVersions() {
+        when(recipeRepository.findById(1L)).thenAnswer(invocation -> {
+            assertFalse(Thread.holdsLock(loader));
+            return Optional.of(new Recipe(1L, "Tomato soup", true, 2, "tomato", "Simmer", 5L));
+        });
+
+        loader.onInvalidation(new RecipeInvalidation(1L, 5L, false));
+        loader.onInvalidation(new RecipeInvalidation(1L, 4L, false));
+
+        verify(recipeRepository, times(1)).findById(1L);
+        assertEquals(List.of(1L), index.search("soup", 10, id -> true).stream().map(RecipeTextIndex.Hit::id).toList());
+    }
+
+    @Test
+    void run_DoesNotOverwriteRecipesInvalidatedDuringTheLoad() {
+        when(recipeRepository.findAll()).thenAnswer(invocation -> {
+            assertFalse(Thread.holdsLock(loader));
+            loader.onInvalidation(new RecipeInvalidation(1L, 3L, true));
+            return List.of(new Recipe(1L, "Tomato soup", true, 2, "tomato", "Simmer", 2L));
+        });
+
+        loader.run(null);
+
+        assertTrue(index.isLoaded());
+        assertEquals(0, index.size());
+    }
+}
@@ -0,0 +1,79 @@
+package nl.abn.assessment.recipesservice.search;
+
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeTextIndexTest {
+
+    private RecipeTextIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new RecipeTextIndex(new RecipesServiceProperties());
+        index.put(1L, "Tomato soup", "Simmer the tomatoes with onion, then blend.");
+        index.put(2L, "Pasta", "Boil the pasta and stir in a tomato sauce.");
+        index.put(3L, "Pancakes", "Whisk flour, eggs and milk. Bake in a hot pan.");
+    }
+
+    @Test
+    void search_RanksNameMatchesAboveInstructionMatches() {
+        List<RecipeTextIndex.Hit> hits = index.search("tomatoes", 10, id -> true);
+
+        assertEquals(List.of(1L, 2L), hits.stream().map(RecipeTextIndex.Hit::id).toList());
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+    }
+
+    @Test
+    void search_MatchesInflectedForms() {
+        assertEquals(List.of(3L), ids(index.search("baking", 10, id -> true)));
+        assertEquals(List.of(2L), ids(index.search("boiled", 10, id -> true)));
+    }
+
+    @Test
+    void search_KeepsOnlyTopK() {
+        for (long id = 10; id < 110; id++) {
+            index.put(id, "Soup " + id, id % 7 == 0 ? "Soup soup soup" : "Simmer");
+        }
+
+        List<RecipeTextIndex.Hit> hits = index.search("soup", 5, id -> true);
+
+        assertEquals(5, hits.size());
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.get(i - 1).score() >= hits.get(i).score());
+        }
+        assertTrue(hits.stream().allMatch(hit -> hit.id() % 7 == 0));
+    }
+
+    @Test
+    void search_AppliesFilter() {
+        assertEquals(List.of(2L), ids(index.search("tomato", 10, id -> id == 2L)));
+    }
+
+    @Test
+    void putAndRemove_KeepIndexCurrent() {
+        index.put(2L, "Pasta", "Boil the pasta and add pesto.");
+        assertEquals(List.of(1L), ids(index.search("tomato", 10, id -> true)));
+
+        index.remove(1L);
+        assertEquals(List.of(), index.search("tomato", 10, id -> true));
+        assertEquals(2, index.size());
+
+        index.put(4L, "Tomato salad", "Slice tomatoes.");
+        assertEquals(List.of(4L), ids(index.search("tomato", 10, id -> true)));
+    }
+
+    @Test
+    void search_UnknownOrEmptyQuery_ReturnsNothing() {
+        assertEquals(List.of(), index.search("chocolate", 10, id -> true));
+        assertEquals(List.of(), index.search("the", 10, id -> true));
+    }
+
+    private static List<Long> ids(List<RecipeTextIndex.Hit> hits) {
+        return hits.stream().map(RecipeTextIndex.Hit::id).toList();
+    }
+}
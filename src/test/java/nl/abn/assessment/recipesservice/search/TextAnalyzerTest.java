@@ -0,0 +1,30 @@
+package nl.abn.assessment.recipesservice.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextAnalyzerTest {
+
+    @Test
+    void analyze_LowercasesSplitsAndDropsStopWords() {
+        assertEquals(List.of("bak", "bread", "oven", "20", "minut"), TextAnalyzer.analyze("Bake the bread in an oven, 20 minutes!"));
+        assertEquals(List.of(), TextAnalyzer.analyze(null));
+        assertEquals(List.of(), TextAnalyzer.analyze("a, the & of"));
+    }
+
+    @Test
+    void stem_ConflatesCommonInflections() {
+        assertEquals("bak", TextAnalyzer.stem("baked"));
+        assertEquals("bak", TextAnalyzer.stem("baking"));
+        assertEquals("bak", TextAnalyzer.stem("bakes"));
+        assertEquals("tomato", TextAnalyzer.stem("tomatoes"));
+        assertEquals("berry", TextAnalyzer.stem("berries"));
+        assertEquals("chop", TextAnalyzer.stem("chopped"));
+        assertEquals("grill", TextAnalyzer.stem("grilled"));
+        assertEquals("glass", TextAnalyzer.stem("glass"));
+        assertEquals("string", TextAnalyzer.stem("string"));
+    }
+}
@@ -1,14 +1,32 @@
 package nl.abn.assessment.recipesservice.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nl.abn.assessment.recipesservice.catalog.ColumnarRecipeStore;
+import nl.abn.assessment.recipesservice.catalog.RecipeCatalog;
+import nl.abn.assessment.recipesservice.catalog.SearchPlan;
+import nl.abn.assessment.recipesservice.config.RecipesServiceProperties;
+import nl.abn.assessment.recipesservice.event.RecipeChangedEvent;
+import nl.abn.assessment.recipesservice.exception.RecipeConflictException;
 import nl.abn.assessment.recipesservice.exception.RecipeNotFoundException;
 import nl.abn.assessment.recipesservice.model.Recipe;
+import nl.abn.assessment.recipesservice.model.RecipeChange;
 import nl.abn.assessment.recipesservice.model.RecipeDto;
+import nl.abn.assessment.recipesservice.model.RecipeRow;
+import nl.abn.assessment.recipesservice.projection.RecipeSearchProjection;
+import nl.abn.assessment.recipesservice.querystats.SearchQueryMetrics;
+import nl.abn.assessment.recipesservice.repository.RecipeChangeRepository;
 import nl.abn.assessment.recipesservice.repository.RecipeRepository;
+import nl.abn.assessment.recipesservice.search.RecipeTextIndex;
+import nl.abn.assessment.recipesservice.sharding.ShardedRecipeStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
@@ -19,9 +37,13 @@ import jakarta.persistence.criteria.Root;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.LongPredicate;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class RecipeServiceTest {
@@ -29,6 +51,36 @@ class RecipeServiceTest {
     @Mock
     private RecipeRepository recipeRepository;
 
+    @Mock
+    private RecipeChangeRepository recipeChangeRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private RecipeCatalog recipeCatalog;
+
+    @Mock
+    private ObjectProvider<ShardedRecipeStore> shardedRecipeStore;
+
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry());
+
+    @Mock
+    private RecipeTextIndex recipeTextIndex;
+
+    @Spy
+    private RecipesServiceProperties properties = new RecipesServiceProperties();
+
+    @Spy
+    private SearchQueryMetrics searchQueryMetrics = new SearchQueryMetrics(new SimpleMeterRegistry(), new RecipesServiceProperties());
+
+    @Mock
+    private RecipeSearchProjection recipeSearchProjection;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @Mock
     private EntityManager entityManager;
 
@@ -36,13 +88,13 @@ class RecipeServiceTest {
     private CriteriaBuilder criteriaBuilder;
 
     @Mock
-    private CriteriaQuery<Recipe> criteriaQuery;
+    private CriteriaQuery<RecipeRow> criteriaQuery;
 
     @Mock
     private Root<Recipe> root;
 
     @Mock
-    private TypedQuery<Recipe> typedQuery;
+    private TypedQuery<RecipeRow> typedQuery;
 
     @InjectMocks
     private RecipeService recipeService;
@@ -50,14 +102,18 @@ class RecipeServiceTest {
     @Mock
     private Recipe recipe;
 
+    private RecipeRow recipeRow;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
         when(entityManager.getCriteriaBuilder()).thenReturn(criteriaBuilder);
-        when(criteriaBuilder.createQuery(Recipe.class)).thenReturn(criteriaQuery);
+        when(criteriaBuilder.createQuery(RecipeRow.class)).thenReturn(criteriaQuery);
         when(criteriaQuery.from(Recipe.class)).thenReturn(root);
         when(entityManager.createQuery(criteriaQuery)).thenReturn(typedQuery);
-        recipe = new Recipe(1L, "cake", true, 4, "flour,sugar", "bake");
+        when(recipeChangeRepository.save(any(RecipeChange.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        recipe = new Recipe(1L, "cake", true, 4, "flour,sugar", "bake", 0L);
+        recipeRow = new RecipeRow(1L, "cake", true, 4, "flour,sugar", "bake", 0L);
     }
 
     @Test
@@ -75,38 +131,107 @@ class RecipeServiceTest {
 
         assertNotNull(result);
         verify(recipeRepository, times(1)).save(any(Recipe.class));
+        verify(recipeChangeRepository, times(1)).save(any(RecipeChange.class));
+        verify(eventPublisher, times(1)).publishEvent(any(RecipeChangedEvent.class));
+    }
+
+    @Test
+    void addRecipes_SavesBatchAndRecordsOneChangePerRecipe() {
+        List<Recipe> batch = List.of(new Recipe(null, "soup", true, 2, "water", "boil", null), new Recipe(null, "stew", false, 4, "beef", "simmer", null));
+        when(recipeRepository.saveAll(batch)).thenReturn(List.of(recipe, new Recipe(2L, "stew", false, 4, "beef", "simmer", 0L)));
+        when(recipeChangeRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertEquals(2, recipeService.addRecipes(batch));
+
+        verify(recipeChangeRepository, times(1)).saveAll(anyList());
+        verify(eventPublisher, times(2)).publishEvent(any(RecipeChangedEvent.class));
     }
 
     @Test
     void getRecipeById() {
         Long id = 1L;
-        when(recipeRepository.findById(id)).thenReturn(Optional.of(recipe));
+        when(recipeRepository.findRowById(id)).thenReturn(Optional.of(recipeRow));
         RecipeDto result = recipeService.getRecipeById(id);
         assertNotNull(result);
-        verify(recipeRepository, times(1)).findById(id);
+        assertEquals("cake", result.getName());
+        verify(recipeRepository, times(1)).findRowById(id);
+        verify(recipeRepository, never()).findById(id);
     }
 
     @Test
     void getRecipeById_NotFound() {
         Long id = 2L;
-        when(recipeRepository.findById(id)).thenReturn(Optional.empty());
+        when(recipeRepository.findRowById(id)).thenReturn(Optional.empty());
         assertThrows(RecipeNotFoundException.class, () -> recipeService.getRecipeById(id));
-        verify(recipeRepository, times(1)).findById(id);
+        verify(recipeRepository, times(1)).findRowById(id);
+    }
+
+    @Test
+    void getRecipeById_Sharded_RoutesToShardStore() {
+        ShardedRecipeStore shards = mock(ShardedRecipeStore.class);
+        when(shardedRecipeStore.getIfAvailable()).thenReturn(shards);
+        when(shards.findById(1L)).thenReturn(Optional.of(recipe));
+
+        RecipeDto result = recipeService.getRecipeById(1L);
+
+        assertEquals("cake", result.getName());
+        verifyNoInteractions(recipeRepository);
+    }
+
+    @Test
+    void updateRecipeById_ShardedMiss_ThrowsNotFound() {
+        ShardedRecipeStore shards = mock(ShardedRecipeStore.class);
+        when(shardedRecipeStore.getIfAvailable()).thenReturn(shards);
+        when(shards.findById(3L)).thenReturn(Optional.empty());
+
+        assertThrows(RecipeNotFoundException.class, () -> recipeService.updateRecipeById(3L, new RecipeDto()));
+        verify(recipeChangeRepository, never()).save(any(RecipeChange.class));
     }
 
     @Test
     void updateRecipeById() {
         Long id = 2L;
         RecipeDto recipeDto = new RecipeDto();
-        Recipe existingRecipe = new Recipe(2L, "chocolate cake", true, 2, "chocolate, flour, sugar", "bake");
+        recipeDto.setName("brownies");
+        recipeDto.setVersion(3L);
+        Recipe existingRecipe = new Recipe(2L, "chocolate cake", true, 2, "chocolate, flour, sugar", "bake", 3L);
         when(recipeRepository.findById(id)).thenReturn(Optional.of(existingRecipe));
-        when(recipeRepository.save(any(Recipe.class))).thenReturn(existingRecipe);
+        when(recipeRepository.saveAndFlush(existingRecipe)).thenAnswer(invocation -> {
+            existingRecipe.setVersion(4L);
+            return existingRecipe;
+        });
 
         RecipeDto result = recipeService.updateRecipeById(id, recipeDto);
 
         assertNotNull(result);
+        assertEquals("brownies", result.getName());
+        assertEquals(4L, result.getVersion());
+        assertEquals(2L, existingRecipe.getId());
         verify(recipeRepository, times(1)).findById(id);
-        verify(recipeRepository, times(1)).save(any(Recipe.class));
+        verify(recipeRepository, times(1)).saveAndFlush(existingRecipe);
+        verify(eventPublisher, times(1)).publishEvent(any(RecipeChangedEvent.class));
+    }
+
+    @Test
+    void updateRecipeById_StaleVersion_ThrowsConflict() {
+        RecipeDto recipeDto = new RecipeDto();
+        recipeDto.setVersion(2L);
+        when(recipeRepository.findById(1L)).thenReturn(Optional.of(new Recipe(1L, "cake", true, 4, "flour", "bake", 3L)));
+
+        assertThrows(RecipeConflictException.class, () -> recipeService.updateRecipeById(1L, recipeDto));
+        verify(recipeRepository, never()).saveAndFlush(any(Recipe.class));
+        verify(recipeChangeRepository, never()).save(any(RecipeChange.class));
+    }
+
+    @Test
+    void updateRecipeById_ShardedLostRace_ThrowsConflict() {
+        ShardedRecipeStore shards = mock(ShardedRecipeStore.class);
+        when(shardedRecipeStore.getIfAvailable()).thenReturn(shards);
+        when(shards.findById(1L)).thenReturn(Optional.of(new Recipe(1L, "cake", true, 4, "flour", "bake", 3L)));
+        when(shards.update(any(Recipe.class))).thenReturn(false);
+
+        assertThrows(RecipeConflictException.class, () -> recipeService.updateRecipeById(1L, new RecipeDto()));
+        verify(recipeChangeRepository, never()).save(any(RecipeChange.class));
     }
 
     @Test
@@ -117,6 +242,7 @@ class RecipeServiceTest {
 
         assertThrows(RecipeNotFoundException.class, () -> recipeService.updateRecipeById(id, recipeDto));
         verify(recipeRepository, times(1)).findById(id);
+        verify(recipeChangeRepository, never()).save(any(RecipeChange.class));
     }
 
     @Test
@@ -124,6 +250,7 @@ class RecipeServiceTest {
         Long id =3L;
         recipeService.deleteRecipeById(id);
         verify(recipeRepository, times(1)).deleteById(id);
+        verify(recipeChangeRepository, times(1)).save(any(RecipeChange.class));
     }
 
     @Test
@@ -140,7 +267,7 @@ class RecipeServiceTest {
         when(criteriaBuilder.like(root.get("ingredients"), "%flour%")).thenReturn(mock(Predicate.class));
         when(criteriaBuilder.like(root.get("ingredients"), "%sugar%")).thenReturn(mock(Predicate.class));
         when(criteriaBuilder.notLike(root.get("ingredients"), "%nuts%")).thenReturn(mock(Predicate.class));
-        when(typedQuery.getResultList()).thenReturn(List.of(recipe));
+        when(typedQuery.getResultList()).thenReturn(List.of(recipeRow));
 
         List<RecipeDto> result = recipeService.searchRecipes(vegetarian, servings, instructions, includeIngredients, excludeIngredients);
 
@@ -151,7 +278,7 @@ class RecipeServiceTest {
 
     @Test
     void searchRecipes_NoParameters() {
-        when(typedQuery.getResultList()).thenReturn(List.of(new Recipe()));
+        when(typedQuery.getResultList()).thenReturn(List.of(new RecipeRow(null, null, null, null, null, null, 0L)));
 
         List<RecipeDto> result = recipeService.searchRecipes(null, null, null, null, null);
 
@@ -165,7 +292,7 @@ class RecipeServiceTest {
         Boolean vegetarian = true;
 
         when(criteriaBuilder.equal(root.get("vegetarian"), vegetarian)).thenReturn(mock(Predicate.class));
-        when(typedQuery.getResultList()).thenReturn(List.of(recipe));
+        when(typedQuery.getResultList()).thenReturn(List.of(recipeRow));
 
         List<RecipeDto> result = recipeService.searchRecipes(vegetarian, null, null, null, null);
 
@@ -179,7 +306,7 @@ class RecipeServiceTest {
         Integer servings = 4;
 
         when(criteriaBuilder.equal(root.get("servings"), servings)).thenReturn(mock(Predicate.class));
-        when(typedQuery.getResultList()).thenReturn(List.of(recipe));
+        when(typedQuery.getResultList()).thenReturn(List.of(recipeRow));
 
         List<RecipeDto> result = recipeService.searchRecipes(null, servings, null, null, null);
 
@@ -193,7 +320,7 @@ class RecipeServiceTest {
         String instructions = "bake";
 
         when(criteriaBuilder.like(root.get("instructions"), "%" + instructions + "%")).thenReturn(mock(Predicate.class));
-        when(typedQuery.getResultList()).thenReturn(List.of(recipe));
+        when(typedQuery.getResultList()).thenReturn(List.of(recipeRow));
 
         List<RecipeDto> result = recipeService.searchRecipes(null, null, instructions, null, null);
 
@@ -208,7 +335,7 @@ class RecipeServiceTest {
 
         when(criteriaBuilder.like(root.get("ingredients"), "%flour%")).thenReturn(mock(Predicate.class));
         when(criteriaBuilder.like(root.get("ingredients"), "%sugar%")).thenReturn(mock(Predicate.class));
-        when(typedQuery.getResultList()).thenReturn(List.of(new Recipe()));
+        when(typedQuery.getResultList()).thenReturn(List.of(new RecipeRow(null, null, null, null, null, null, 0L)));
 
         List<RecipeDto> result = recipeService.searchRecipes(null, null, null, includeIngredients, null);
 
@@ -222,7 +349,7 @@ class RecipeServiceTest {
         List<String> excludeIngredients = List.of("nuts");
 
         when(criteriaBuilder.notLike(root.get("ingredients"), "%nuts%")).thenReturn(mock(Predicate.class));
-        when(typedQuery.getResultList()).thenReturn(List.of(recipe));
+        when(typedQuery.getResultList()).thenReturn(List.of(recipeRow));
 
         List<RecipeDto> result = recipeService.searchRecipes(null, null, null, null, excludeIngredients);
 
@@ -230,4 +357,99 @@ class RecipeServiceTest {
         assertFalse(result.isEmpty());
         verify(entityManager, times(1)).createQuery(any(CriteriaQuery.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void searchRecipes_ServedFromCatalogWhenLoaded() {
+        when(recipeCatalog.canServeSearch()).thenReturn(true);
+        when(recipeCatalog.search(any(RecipeSearchCriteria.class))).thenReturn(new ColumnarRecipeStore.Result(List.of(recipe),
+                new SearchPlan(SearchPlan.AccessPath.FULL_SCAN, List.of(SearchPlan.Step.VEGETARIAN), 1)));
+
+        List<RecipeDto> result = recipeService.searchRecipes(true, null, "BAKE", List.of("Flour"), null);
+
+        assertEquals(1, result.size());
+        verify(recipeCatalog).search(new RecipeSearchCriteria(true, null, "bake", List.of("flour"), List.of()));
+        verify(entityManager, never()).createQuery(any(CriteriaQuery.class));
+    }
+
+    @Test
+    void explainSearch_DatabaseUsesCatalogPlanWhenLoaded() {
+        when(recipeCatalog.isLoaded()).thenReturn(true);
+        when(recipeCatalog.planForDatabase(any(RecipeSearchCriteria.class))).thenReturn(
+                new SearchPlan(SearchPlan.AccessPath.DATABASE, List.of(SearchPlan.Step.SERVINGS, SearchPlan.Step.VEGETARIAN), 3));
+        when(typedQuery.getResultList()).thenReturn(List.of(recipeRow));
+
+        RecipeSearchResult result = recipeService.explainSearch(true, 4, null, null, null);
+
+        assertEquals(1, result.recipes().size());
+        assertEquals("access=DATABASE steps=[SERVINGS, VEGETARIAN] estimatedRows=3 actualRows=1", result.explain());
+    }
+
+    @Test
+    void explainSearch_DatabaseWithoutCatalogUsesDeclaredOrder() {
+        when(typedQuery.getResultList()).thenReturn(List.of(recipeRow));
+
+        RecipeSearchResult result = recipeService.explainSearch(true, 4, "bake", List.of("flour"), List.of("nuts"));
+
+        assertEquals(List.of(SearchPlan.Step.VEGETARIAN, SearchPlan.Step.SERVINGS, SearchPlan.Step.INSTRUCTIONS,
+                SearchPlan.Step.INCLUDE_INGREDIENTS, SearchPlan.Step.EXCLUDE_INGREDIENTS), result.plan().steps());
+        assertEquals("access=DATABASE steps=[VEGETARIAN, SERVINGS, INSTRUCTIONS, INCLUDE_INGREDIENTS, EXCLUDE_INGREDIENTS] estimatedRows=unknown actualRows=1", result.explain());
+    }
+
+    @Test
+    void explainSearch_ServedFromProjectionWhenLoaded() {
+        when(recipeSearchProjection.isLoaded()).thenReturn(true);
+        when(recipeSearchProjection.search(any(RecipeSearchCriteria.class), anyList())).thenReturn(List.of(recipeRow));
+
+        RecipeSearchResult result = recipeService.explainSearch(true, null, "Bake", null, null);
+
+        assertEquals(1, result.recipes().size());
+        assertEquals("access=PROJECTION steps=[VEGETARIAN, INSTRUCTIONS] estimatedRows=unknown actualRows=1", result.explain());
+        verify(recipeSearchProjection).search(new RecipeSearchCriteria(true, null, "bake", List.of(), List.of()),
+                List.of(SearchPlan.Step.VEGETARIAN, SearchPlan.Step.INSTRUCTIONS));
+        verify(entityManager, never()).createQuery(any(CriteriaQuery.class));
+    }
+
+    @Test
+    void rankedSearch_LoadsHitsInRankOrder() {
+        Recipe soup = new Recipe(2L, "soup", true, 2, "tomato", "simmer", 0L);
+        when(recipeTextIndex.isLoaded()).thenReturn(true);
+        when(recipeTextIndex.search(eq("tomato"), eq(20), any())).thenReturn(List.of(
+                new RecipeTextIndex.Hit(2L, 3.0), new RecipeTextIndex.Hit(1L, 1.0)));
+        when(recipeRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(recipe, soup));
+
+        List<RecipeDto> result = recipeService.rankedSearch("tomato", null, null, null, null, null);
+
+        assertEquals(List.of(2L, 1L), result.stream().map(RecipeDto::getId).toList());
+    }
+
+    @Test
+    void rankedSearch_FiltersRankOnlyMatchingCandidates() {
+        when(recipeTextIndex.isLoaded()).thenReturn(true);
+        when(typedQuery.getResultList()).thenReturn(List.of(recipeRow));
+        when(recipeTextIndex.search(eq("cake"), eq(20), any())).thenAnswer(invocation -> {
+            LongPredicate filter = invocation.getArgument(2);
+            assertTrue(filter.test(1L));
+            assertFalse(filter.test(2L));
+            return List.of(new RecipeTextIndex.Hit(1L, 2.0));
+        });
+
+        List<RecipeDto> result = recipeService.rankedSearch("cake", true, null, null, null, null);
+
+        assertEquals(1, result.size());
+        assertEquals(1L, result.get(0).getId());
+        verify(recipeRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void rankedSearch_IndexNotLoaded_FallsBackToInstructionsMatch() {
+        when(recipeCatalog.canServeSearch()).thenReturn(true);
+        when(recipeCatalog.search(any(RecipeSearchCriteria.class))).thenReturn(new ColumnarRecipeStore.Result(List.of(recipe),
+                new SearchPlan(SearchPlan.AccessPath.FULL_SCAN, List.of(SearchPlan.Step.INSTRUCTIONS), 1)));
+
+        List<RecipeDto> result = recipeService.rankedSearch("Bake", null, null, null, null, null);
+
+        assertEquals(1, result.size());
+        verify(recipeCatalog).search(new RecipeSearchCriteria(null, null, "bake", List.of(), List.of()));
+        verify(recipeTextIndex, never()).search(any(), anyInt(), any());
+    }
+}
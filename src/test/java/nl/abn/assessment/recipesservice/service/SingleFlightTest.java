@@ -0,0 +1,120 @@
+package nl.abn.assessment.recipesservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final SingleFlight singleFlight = new SingleFlight(meterRegistry);
+
+    @Test
+    void execute_ConcurrentIdenticalCalls_ShareOneExecution() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        int followers = 20;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> leader = executor.submit(() -> singleFlight.execute("get", 1L, () -> {
+                calls.incrementAndGet();
+                awaitQuietly(release);
+                return "pasta";
+            }));
+            while (calls.get() == 0) {
+                Thread.onSpinWait();
+            }
+            List<Future<String>> others = new ArrayList<>();
+            for (int i = 0; i < followers; i++) {
+                others.add(executor.submit(() -> singleFlight.execute("get", 1L, () -> {
+                    calls.incrementAndGet();
+                    return "other";
+                })));
+            }
+            while (coalesced() < followers) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertEquals("pasta", leader.get());
+            for (Future<String> other : others) {
+                assertEquals("pasta", other.get());
+            }
+        }
+        assertEquals(1, calls.get());
+        assertEquals(1.0, meterRegistry.get("recipes.singleflight.calls").tag("outcome", "executed").counter().count());
+    }
+
+    @Test
+    void execute_AfterCompletion_RunsAgain() {
+        AtomicInteger calls = new AtomicInteger();
+
+        singleFlight.execute("get", 1L, calls::incrementAndGet);
+        singleFlight.execute("get", 1L, calls::incrementAndGet);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void forget_LaterCallersStartAFreshCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> stale = executor.submit(() -> singleFlight.execute("get", 1L, () -> {
+                calls.incrementAndGet();
+                awaitQuietly(release);
+                return "old";
+            }));
+            while (calls.get() == 0) {
+                Thread.onSpinWait();
+            }
+            singleFlight.forget("get", 1L);
+
+            assertEquals("new", singleFlight.execute("get", 1L, () -> "new"));
+            release.countDown();
+            assertEquals("old", stale.get());
+        }
+        assertEquals("next", singleFlight.execute("get", 1L, () -> "next"));
+    }
+
+    @Test
+    void execute_DifferentGroupsWithSameKey_AreIndependent() {
+        assertEquals("a", singleFlight.execute("get", 1L, () -> "a"));
+        assertEquals("b", singleFlight.execute("search", 1L, () -> "b"));
+    }
+
+    @Test
+    void execute_Failure_IsRethrownAndFlightCleared() {
+        IllegalStateException failure = new IllegalStateException("down");
+
+        assertSame(failure, assertThrows(IllegalStateException.class,
+                () -> singleFlight.execute("get", 1L, () -> {
+                    throw failure;
+                })));
+        assertEquals("ok", singleFlight.execute("get", 1L, () -> "ok"));
+    }
+
+    private double coalesced() {
+        var counter = meterRegistry.find("recipes.singleflight.calls").tag("outcome", "coalesced").counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
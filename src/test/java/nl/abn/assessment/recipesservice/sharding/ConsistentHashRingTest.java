@@ -0,0 +1,51 @@
+package nl.abn.assessment.recipesservice.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 30_000;
+
+    @Test
+    void nodeFor_SpreadsSequentialIdsOverAllNodes() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(nodes("a", "b", "c"), 128);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (long id = 1; id <= KEYS; id++) {
+            counts.merge(ring.nodeFor(id), 1, Integer::sum);
+        }
+
+        assertEquals(3, counts.size());
+        counts.values().forEach(count -> assertTrue(count > KEYS / 3 * 0.7, "unbalanced: " + counts));
+    }
+
+    @Test
+    void nodeFor_AddingNode_OnlyMovesKeysToTheNewNode() {
+        ConsistentHashRing<String> before = new ConsistentHashRing<>(nodes("a", "b", "c"), 128);
+        ConsistentHashRing<String> after = new ConsistentHashRing<>(nodes("a", "b", "c", "d"), 128);
+
+        int moved = 0;
+        for (long id = 1; id <= KEYS; id++) {
+            String owner = after.nodeFor(id);
+            if (!owner.equals(before.nodeFor(id))) {
+                assertEquals("d", owner);
+                moved++;
+            }
+        }
+        assertTrue(moved > KEYS / 4 * 0.7 && moved < KEYS / 4 * 1.3, "moved " + moved);
+    }
+
+    private static Map<String, String> nodes(String... names) {
+        Map<String, String> nodes = new LinkedHashMap<>();
+        for (String name : names) {
+            nodes.put(name, name);
+        }
+        return nodes;
+    }
+}
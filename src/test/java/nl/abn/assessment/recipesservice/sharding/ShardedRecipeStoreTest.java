@@ -0,0 +1,173 @@
+package nl.abn.assessment.recipesservice.sharding;
+
+import nl.abn.assessment.recipesservice.model.Recipe;
+import nl.abn.assessment.recipesservice.service.RecipeSearchCriteria;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedRecipeStoreTest {
+
+    private ShardedRecipeStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ShardedRecipeStore(List.of(shard("s0"), shard("s1"), shard("s2")), "s0", 64);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        store.close();
+    }
+
+    @Test
+    void insert_AllocatesUniqueIdsAndStoresOnOwningShard() {
+        for (int i = 0; i < 30; i++) {
+            store.insert(recipe("Recipe " + i, i % 2 == 0));
+        }
+
+        Map<String, Long> counts = store.countsByShard();
+        assertEquals(30, counts.values().stream().mapToLong(Long::longValue).sum());
+        assertTrue(counts.values().stream().allMatch(count -> count > 0), "empty shard: " + counts);
+        for (long id = 1; id <= 30; id++) {
+            assertEquals("Recipe " + (id - 1), store.findById(id).orElseThrow().getName());
+        }
+    }
+
+    @Test
+    void updateAndDelete_RouteToOwningShard() {
+        Recipe pasta = store.insert(recipe("Pasta", true));
+
+        pasta.setName("Penne");
+        assertTrue(store.update(pasta));
+        assertEquals("Penne", store.findById(pasta.getId()).orElseThrow().getName());
+
+        assertTrue(store.delete(pasta.getId()));
+        assertTrue(store.findById(pasta.getId()).isEmpty());
+        assertFalse(store.update(pasta));
+    }
+
+    @Test
+    void update_StaleVersionIsRejected() {
+        Recipe pasta = store.insert(recipe("Pasta", true));
+        Recipe stale = store.findById(pasta.getId()).orElseThrow();
+
+        pasta.setName("Penne");
+        assertTrue(store.update(pasta));
+        assertEquals(1L, pasta.getVersion());
+
+        stale.setName("Fusilli");
+        assertFalse(store.update(stale));
+        Recipe stored = store.findById(pasta.getId()).orElseThrow();
+        assertEquals("Penne", stored.getName());
+        assertEquals(1L, stored.getVersion());
+    }
+
+    @Test
+    void search_GathersAllShardsInIdOrder() {
+        for (int i = 0; i < 20; i++) {
+            store.insert(recipe("Recipe " + i, i % 2 == 0));
+        }
+
+        List<Recipe> vegetarian = store.search(RecipeSearchCriteria.of(true, null, null, List.of("Tomato"), List.of("meat")));
+
+        assertEquals(10, vegetarian.size());
+        for (int i = 1; i < vegetarian.size(); i++) {
+            assertTrue(vegetarian.get(i - 1).getId() < vegetarian.get(i).getId());
+        }
+        assertTrue(vegetarian.stream().allMatch(Recipe::isVegetarian));
+    }
+
+    @Test
+    void addShard_MovesOwnedRecipesAndKeepsEverythingReadable() {
+        for (int i = 0; i < 200; i++) {
+            store.insert(recipe("Recipe " + i, true));
+        }
+
+        int moved = store.addShard(shard("s3"));
+
+        assertTrue(moved > 0);
+        assertEquals(moved, store.countsByShard().get("s3"));
+        assertEquals(200, store.countsByShard().values().stream().mapToLong(Long::longValue).sum());
+        for (long id = 1; id <= 200; id++) {
+            assertTrue(store.findById(id).isPresent(), "lost recipe " + id);
+        }
+        assertEquals(0, store.rebalance());
+    }
+
+    @Test
+    void insert_IdsStayUniqueWhenShardsAreReorderedOrTheSequenceShardChanges() throws Exception {
+        ShardedRecipeStore.Shard s0 = shard("s0");
+        ShardedRecipeStore.Shard s1 = shard("s1");
+        store.close();
+        store = new ShardedRecipeStore(List.of(s0, s1), "s0", 64);
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(store.insert(recipe("Recipe " + i, true)).getId());
+        }
+
+        ShardedRecipeStore.Shard s2 = shard("s2");
+        store.close();
+        store = new ShardedRecipeStore(List.of(s2, s1, s0), "s0", 64);
+        ids.add(store.insert(recipe("After reorder", true)).getId());
+        store.close();
+        store = new ShardedRecipeStore(List.of(s0, s1, s2), "s1", 64);
+        ids.add(store.insert(recipe("After switch", true)).getId());
+
+        assertEquals(12, ids.size());
+        assertEquals(12, store.countsByShard().values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    void constructor_RejectsUnknownSequenceShard() {
+        assertThrows(IllegalArgumentException.class, () -> new ShardedRecipeStore(List.of(shard("s0")), "missing", 64));
+    }
+
+    @Test
+    void rebalance_StaleCopyNeverOverwritesNewerRowOnOwner() throws Exception {
+        ShardedRecipeStore.Shard s0 = shard("s0");
+        ShardedRecipeStore.Shard s1 = shard("s1");
+        store.close();
+        store = new ShardedRecipeStore(List.of(s0), "s0", 64);
+        List<Recipe> recipes = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            recipes.add(store.insert(recipe("Recipe " + i, true)));
+        }
+        store.addShard(s1);
+        Recipe moved = recipes.stream().filter(recipe -> store.shardFor(recipe.getId()).equals("s1")).findFirst().orElseThrow();
+        Recipe updated = store.findById(moved.getId()).orElseThrow();
+        updated.setName("Updated");
+        assertTrue(store.update(updated));
+
+        // Left behind on the old shard by a rebalance that copied it before the update, e.g. on another instance.
+        new JdbcTemplate(s0.dataSource()).update("INSERT INTO recipe (id, name, vegetarian, servings, ingredients, instructions, version)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?)", moved.getId(), moved.getName(), true, 2, "pasta", "Cook", 0L);
+        assertEquals(1, store.rebalance());
+
+        Recipe stored = store.findById(moved.getId()).orElseThrow();
+        assertEquals("Updated", stored.getName());
+        assertEquals(1L, stored.getVersion());
+        assertEquals(0, new JdbcTemplate(s0.dataSource()).queryForObject("SELECT COUNT(*) FROM recipe WHERE id = ?", Integer.class, moved.getId()));
+    }
+
+    private static ShardedRecipeStore.Shard shard(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        return new ShardedRecipeStore.Shard(name, dataSource);
+    }
+
+    private static Recipe recipe(String name, boolean vegetarian) {
+        return new Recipe(null, name, vegetarian, 2, vegetarian ? "pasta, tomato" : "meat, tomato", "Cook", null);
+    }
+}